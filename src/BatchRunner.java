@@ -3,12 +3,48 @@ import graph.Edge;
 import java.nio.file.*;
 import java.util.*;
 import java.io.*;
-import java.util.regex.*;
+import java.util.concurrent.*;
 
 public class BatchRunner {
 
+    // phase timers and counters across all datasets, exported to results/metrics.{json,prom}
+    static final Instrumentation INST = new Instrumentation();
+
+    // usage: BatchRunner [dataDir] [--workers N] [--virtual] [--compact] [--force] [--no-cache]
+    //                    [--external] [--chunk-edges N]
+    //   --workers N  process N datasets concurrently (0 = one per core, default 1)
+    //   --virtual    run workers on virtual threads when the JVM supports them
+    //   --compact    write _result.json without newlines and indentation
+    //   --force      recompute every dataset even if results/.cache has it (the cache is refreshed)
+    //   --no-cache   neither read nor write results/.cache
+    //   --external   out-of-core mode for JSON datasets: edges are spooled and sorted on disk
+    //                (under java.io.tmpdir) and SCC runs on the mapped CSR; same results
+    //   --chunk-edges N  edges per in-memory chunk in --external mode (default 2^20, 2^10..2^28)
     public static void main(String[] args) throws Exception {
-        Path dataDir = Path.of(args.length > 0 ? args[0] : "data");
+        String dataArg = "data";
+        int workers = 1;
+        boolean virtual = false;
+        boolean pretty = true;
+        boolean force = false, useCache = true, external = false;
+        int chunkEdges = ExternalPipeline.DEFAULT_CHUNK;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--workers": workers = Integer.parseInt(args[++i]); break;
+                case "--virtual": virtual = true; break;
+                case "--compact": pretty = false; break;
+                case "--force": force = true; break;
+                case "--no-cache": useCache = false; break;
+                case "--external": external = true; break;
+                case "--chunk-edges": chunkEdges = Integer.parseInt(args[++i]); break;
+                default: dataArg = args[i];
+            }
+        }
+        if (chunkEdges < ExternalPipeline.MIN_CHUNK || chunkEdges > ExternalPipeline.MAX_CHUNK) {
+            System.err.println("--chunk-edges must be between " + ExternalPipeline.MIN_CHUNK + " and " + ExternalPipeline.MAX_CHUNK);
+            return;
+        }
+        if (workers <= 0) workers = Runtime.getRuntime().availableProcessors();
+        Path dataDir = Path.of(dataArg);
         if (!Files.exists(dataDir)) {
             System.err.println("data/ directory not found. Place your JSON datasets in ./data/");
             return;
@@ -16,12 +52,29 @@ public class BatchRunner {
 
         Path resultsDir = Path.of("results");
         Files.createDirectories(resultsDir);
+        // fingerprints the whole code location of the runner and the engine, nested classes included
+        ResultCache cache = useCache ? new ResultCache(resultsDir.resolve(".cache"), BatchRunner.class, SccEngine.class) : null;
+        RunOptions opts = new RunOptions(resultsDir, pretty, cache, force, external, chunkEdges);
 
         List<Path> datasetFiles = new ArrayList<>();
         try (var s = Files.list(dataDir)) {
-            s.filter(p -> p.toString().endsWith(".json")).forEach(datasetFiles::add);
+            s.filter(DatasetReader::isDataset).forEach(datasetFiles::add);
         }
         Collections.sort(datasetFiles);
+        // when a dataset exists as both JSON and binary, load the binary copy unless the JSON is newer
+        Set<Path> present = new HashSet<>(datasetFiles);
+        Set<Path> dropped = new HashSet<>();
+        for (Path json : datasetFiles) {
+            Path bin = json.resolveSibling(stem(json) + BinaryGraph.EXTENSION);
+            if (!json.toString().endsWith(".json") || !present.contains(bin)) continue;
+            if (Files.getLastModifiedTime(bin).compareTo(Files.getLastModifiedTime(json)) >= 0) {
+                dropped.add(json);
+            } else {
+                System.err.println("Warning: " + bin + " is older than " + json + ", loading the JSON");
+                dropped.add(bin);
+            }
+        }
+        datasetFiles.removeAll(dropped);
 
         Path metricsCsv = resultsDir.resolve("metrics_summary.csv");
         try (BufferedWriter csv = Files.newBufferedWriter(metricsCsv)) {
@@ -30,48 +83,175 @@ public class BatchRunner {
                     + "scc_time_ms,dfs_visits,scc_edges,"
                     + "topo_pushes,topo_pops,"
                     + "dags_relaxations,dags_time_ms,"
-                    + "shortest_path_length,critical_path_length\n");
+                    + "shortest_path_length,critical_path_length,"
+                    + "parse_time_ms,parse_alloc_bytes,scc_engine,"
+                    + "cond_time_ms,cond_inter_edges,cond_merged,cond_edges\n");
+
+            OrderedCsv rows = new OrderedCsv(csv, datasetFiles.size());
+            long wallStart = System.nanoTime();
+            long totalEdges = 0;
+            if (workers == 1 && !virtual) {
+                for (int i = 0; i < datasetFiles.size(); i++)
+                    totalEdges += runDataset(i, datasetFiles.get(i), opts, rows).numEdges;
+            } else {
+                ExecutorService pool = newWorkerPool(workers, virtual);
+                try {
+                    List<Future<DatasetResult>> futures = new ArrayList<>();
+                    for (int i = 0; i < datasetFiles.size(); i++) {
+                        final int idx = i;
+                        futures.add(pool.submit(() -> runDataset(idx, datasetFiles.get(idx), opts, rows)));
+                    }
+                    for (Future<DatasetResult> f : futures) {
+                        try {
+                            totalEdges += f.get().numEdges;
+                        } catch (ExecutionException e) {
+                            if (e.getCause() instanceof Exception) throw (Exception) e.getCause();
+                            throw e;
+                        }
+                    }
+                } finally {
+                    pool.shutdownNow();
+                }
+            }
+            double wallSec = (System.nanoTime() - wallStart) / 1e9;
+            System.out.printf(Locale.ROOT,
+                    "Throughput -> %d datasets, %d edges in %.3fs: %.1f datasets/s, %.0f edges/s (workers=%d%s)%n",
+                    datasetFiles.size(), totalEdges, wallSec,
+                    datasetFiles.size() / wallSec, totalEdges / wallSec, workers, virtual ? ", virtual" : "");
+            if (cache != null)
+                System.out.printf(Locale.ROOT, "Cache -> %d hits, %d misses, %.3fms of compute saved%s%n",
+                        cache.getHits(), cache.getMisses(), cache.getSavedMs(), force ? " (--force)" : "");
+        }
 
-            for (Path ds : datasetFiles) {
-                System.out.println("Processing: " + ds.getFileName());
-                DatasetResult res = processDataset(ds);
-                // write per-dataset JSON result
-                Path outFile = resultsDir.resolve(ds.getFileName().toString().replace(".json", "") + "_result.json");
-                Files.writeString(outFile, res.resultJson);
+        System.out.println("All done. Metrics CSV at: " + metricsCsv.toAbsolutePath());
+        if (Instrumentation.ENABLED) {
+            INST.writeJson(resultsDir.resolve("metrics.json"));
+            INST.writePrometheus(resultsDir.resolve("metrics.prom"));
+            System.out.println("Phase metrics at: " + resultsDir.resolve("metrics.json").toAbsolutePath() + " (and metrics.prom)");
+        }
+    }
 
-                // 🔧 UPDATED CSV line
-                String line = String.format(Locale.ROOT,
-                        "%s,%d,%d,%.3f,%d,%d,%d,%d,%d,%.3f,%.3f,%.3f\n",
-                        ds.getFileName().toString(),
-                        res.numComponents,
-                        res.numNodes,
-                        res.sccTimeMs,
-                        res.sccVisits,
-                        res.sccEdges,
-                        res.topoPushes,
-                        res.topoPops,
-                        res.dagspRelaxations,
-                        res.dagspTimeMs,
-                        res.shortestLength,
-                        res.criticalLength
-                );
-                csv.write(line);
-                csv.flush();
+    static class RunOptions {
+        final Path resultsDir;
+        final boolean pretty, force, external;
+        final int chunkEdges;
+        final ResultCache cache;   // null with --no-cache
+
+        RunOptions(Path resultsDir, boolean pretty, ResultCache cache, boolean force, boolean external, int chunkEdges) {
+            this.resultsDir = resultsDir;
+            this.pretty = pretty;
+            this.cache = cache;
+            this.force = force;
+            this.external = external;
+            this.chunkEdges = chunkEdges;
+        }
+    }
 
-                // 🔧 Console summary with path lengths
-                System.out.printf(
-                        " Result -> %s%n Metrics -> SCC %.3fms, Topo pushes/pops %d/%d, DAGSP relax=%d time=%.3fms, Shortest=%.3f, Critical=%.3f%n",
-                        outFile.getFileName(), res.sccTimeMs, res.topoPushes, res.topoPops,
-                        res.dagspRelaxations, res.dagspTimeMs, res.shortestLength, res.criticalLength);
-                System.out.println("--------------------------------------------------------");
+    // processes one dataset: writes its result file as soon as it is done and hands the CSV row over
+    static DatasetResult runDataset(int index, Path ds, RunOptions opts, OrderedCsv rows) throws Exception {
+        // per-dataset JSON result is streamed straight to its file
+        Path outFile = opts.resultsDir.resolve(stem(ds) + "_result.json");
+        String key = null;
+        if (opts.cache != null) {
+            key = opts.cache.key(ds, (opts.pretty ? "pretty" : "compact") + (opts.external ? ",external" : "")
+                    + ",metrics=" + Instrumentation.ENABLED + ",counters=" + Instrumentation.COUNTERS);
+            ResultCache.Entry hit = opts.force ? null : opts.cache.lookup(stem(ds), key, outFile);
+            if (hit != null) {
+                System.out.println("Unchanged: " + ds.getFileName() + " (cached " + outFile.getFileName() + ")");
+                rows.put(index, hit.row + "\n");
+                DatasetResult res = new DatasetResult();
+                res.numEdges = hit.numEdges;
+                return res;
             }
         }
+        System.out.println("Processing: " + ds.getFileName());
+        long t0 = System.nanoTime();
+        DatasetResult res = opts.external && ds.getFileName().toString().endsWith(".json")
+                ? processExternal(ds, outFile, opts) : processDataset(ds, outFile, opts.pretty);
+
+        // 🔧 UPDATED CSV line
+        String line = String.format(Locale.ROOT,
+                "%s,%d,%d,%.3f,%d,%d,%d,%d,%s,%.3f,%.3f,%.3f,%.3f,%d,%s,%.3f,%s,%s,%d\n",
+                ds.getFileName().toString(),
+                res.numComponents,
+                res.numNodes,
+                res.sccTimeMs,
+                res.sccVisits,
+                res.sccEdges,
+                res.topoPushes,
+                res.topoPops,
+                counter(res.dagspRelaxations),
+                res.dagspTimeMs,
+                res.shortestLength,
+                res.criticalLength,
+                res.parseTimeMs,
+                res.parseAllocBytes,
+                res.sccEngine,
+                res.condTimeMs,
+                counter(res.condInterEdges),
+                counter(res.condMerged),
+                res.condEdges
+        );
+        rows.put(index, line);
+        if (key != null)
+            opts.cache.store(stem(ds), key, line.substring(0, line.length() - 1), res.numEdges, (System.nanoTime() - t0) / 1e6, outFile);
+
+        // 🔧 Console summary with path lengths
+        System.out.print(String.format(
+                " Result -> %s%n Metrics -> Parse %.3fms (%d B alloc), SCC %.3fms, Topo pushes/pops %d/%d, DAGSP relax=%d time=%.3fms, Shortest=%.3f, Critical=%.3f%n",
+                outFile.getFileName(), res.parseTimeMs, res.parseAllocBytes, res.sccTimeMs, res.topoPushes, res.topoPops,
+                res.dagspRelaxations, res.dagspTimeMs, res.shortestLength, res.criticalLength)
+                + "--------------------------------------------------------" + System.lineSeparator());
+        return res;
+    }
 
-        System.out.println("All done. Metrics CSV at: " + metricsCsv.toAbsolutePath());
+    // per-edge counters are not collected with -Dgraph.counters=off: leave the field empty, not 0
+    static String counter(long v) {
+        return Instrumentation.COUNTERS ? Long.toString(v) : "";
+    }
+
+    // file name without the .json / .csr extension
+    static String stem(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    // CSV rows arrive in completion order and are written in dataset (sorted) order
+    static class OrderedCsv {
+        private final Writer out;
+        private final String[] rows;
+        private int next = 0;
+
+        OrderedCsv(Writer out, int count) { this.out = out; this.rows = new String[count]; }
+
+        synchronized void put(int index, String row) throws IOException {
+            rows[index] = row;
+            while (next < rows.length && rows[next] != null) {
+                out.write(rows[next]);
+                rows[next++] = null;
+            }
+            out.flush();
+        }
+    }
+
+    static ExecutorService newWorkerPool(int workers, boolean virtual) {
+        if (virtual) {
+            try {
+                // Thread.ofVirtual().factory(), looked up reflectively so the code still runs on JDK 17
+                Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                ThreadFactory factory = (ThreadFactory) Class.forName("java.lang.Thread$Builder")
+                        .getMethod("factory").invoke(builder);
+                return Executors.newFixedThreadPool(workers, factory);
+            } catch (ReflectiveOperationException e) {
+                System.err.println("Virtual threads not available on this JVM, using platform threads");
+            }
+        }
+        return Executors.newFixedThreadPool(workers);
     }
 
     static class DatasetResult {
-        String resultJson;
+        long numEdges;
         int numComponents;
         int numNodes;
         double sccTimeMs;
@@ -84,92 +264,119 @@ public class BatchRunner {
         // 🔧 NEW
         double shortestLength;
         double criticalLength;
+        double parseTimeMs;
+        long parseAllocBytes;
+        String sccEngine;
+        double condTimeMs;
+        long condInterEdges;
+        long condMerged;
+        long condEdges;
     }
 
-    static DatasetResult processDataset(Path dataset) throws Exception {
-        String textRaw = Files.readString(dataset);
-        String compact = textRaw.replaceAll("[\\n\\r\\t ]", "");
+    static DatasetResult processDataset(Path dataset, Path outFile, boolean pretty) throws Exception {
+        DatasetReader parser = DatasetReader.forFile(dataset);
+        Dataset data = INST.time("parse", () -> parser.read(dataset));
+        int n = data.n;
+        int source = data.source;
 
-        int n = 0;
-        Matcher mN = Pattern.compile("\"n\":(\\d+)").matcher(compact);
-        if (mN.find()) n = Integer.parseInt(mN.group(1));
-        boolean directed = compact.contains("\"directed\":true");
-        int source = 0;
-        Matcher mS = Pattern.compile("\"source\":(\\d+)").matcher(compact);
-        if (mS.find()) source = Integer.parseInt(mS.group(1));
+        CsrGraph graph = INST.time("build_csr", data::sccGraph);
+        // scratch is borrowed from the worker thread's workspace, so only results are allocated per dataset
+        SccEngine scc = SccEngine.forGraph(graph, Workspace.local());
+        Components comps = INST.time("scc", () -> scc.components(graph));
 
-        List<double[]> edges = new ArrayList<>();
-        Matcher mEdges = Pattern.compile("\\{[^}]*\"u\":(\\d+)[^}]*\"v\":(\\d+)(?:[^0-9\\.]{1,}\"w\":([0-9\\.]+))?[^}]*\\}").matcher(compact);
-        while (mEdges.find()) {
-            int u = Integer.parseInt(mEdges.group(1));
-            int v = Integer.parseInt(mEdges.group(2));
-            double w = 1.0;
-            if (mEdges.group(3) != null) w = Double.parseDouble(mEdges.group(3));
-            edges.add(new double[]{u, v, w});
-            n = Math.max(n, Math.max(u, v) + 1);
-        }
-
-        SCC scc = new SCC(n);
-        for (double[] e : edges) {
-            scc.addEdge((int)e[0], (int)e[1]);
-            if (!directed) scc.addEdge((int)e[1], (int)e[0]);
-        }
-        List<List<Integer>> comps = scc.run();
+        Condensation condensation = new Condensation();
+        CsrGraph adj = INST.time("condense", () -> condensation.build(comps, data));
 
-        int[] cid = new int[n];
-        for (int i = 0; i < comps.size(); i++) for (int v : comps.get(i)) cid[v] = i;
+        DatasetResult dr = new DatasetResult();
+        dr.numEdges = data.edgeCount();
+        dr.sccTimeMs = scc.getTimeMs();
+        dr.sccVisits = scc.getDfsVisits();
+        dr.sccEdges = scc.getEdgesProcessed();
+        dr.parseTimeMs = parser.getTimeMs();
+        dr.parseAllocBytes = parser.getAllocatedBytes();
+        dr.sccEngine = scc.getClass().getSimpleName();
+        dr.condTimeMs = condensation.getTimeMs();
+        dr.condInterEdges = condensation.getInterEdges();
+        dr.condMerged = condensation.getMerged();
+        dr.condEdges = condensation.getEmitted();
+        return solve(n, source, comps, adj, outFile, pretty, dr);
+    }
 
-        int numComponents = comps.size();
-        List<List<Edge>> adj = new ArrayList<>();
-        for (int i = 0; i < numComponents; i++) adj.add(new ArrayList<>());
-        Map<String, Double> seen = new LinkedHashMap<>();
-        for (double[] e : edges) {
-            int a = cid[(int)e[0]], b = cid[(int)e[1]];
-            if (a != b) {
-                String key = a + "-" + b;
-                double w = e[2];
-                seen.put(key, seen.containsKey(key) ? Math.min(seen.get(key), w) : w);
-            }
-        }
-        for (Map.Entry<String, Double> en : seen.entrySet()) {
-            String[] parts = en.getKey().split("-");
-            adj.get(Integer.parseInt(parts[0])).add(new Edge(Integer.parseInt(parts[1]), en.getValue()));
+    /**
+     * --external: the edges never sit on the heap. They are spooled and sorted on disk by
+     * ExternalPipeline, SCC runs over the memory-mapped CSR with its state in an arena, and
+     * the condensation is deduplicated by spill-and-merge. Only the per-vertex arrays the
+     * result file needs and the condensation DAG are materialized.
+     */
+    static DatasetResult processExternal(Path dataset, Path outFile, RunOptions opts) throws Exception {
+        try (ExternalPipeline ext = new ExternalPipeline(opts.chunkEdges);
+             OffHeapArena arena = new OffHeapArena()) {
+            INST.run("parse", () -> ext.load(dataset));
+            int n = ext.getN();
+            OffHeapGraph graph = INST.time("build_csr", () -> ext.graph(arena));
+            SCC scc = new SCC(n);
+            Components comps = INST.time("scc", () -> {
+                OffHeapArena.Ints cid = arena.ints(n), comp = arena.ints(n), compStart = arena.ints(n + 1);
+                int count = scc.components(graph, arena, cid, comp, compStart);
+                return new Components(count, comp.toArray(), compStart.prefix(count + 1).toArray(), cid.toArray());
+            });
+            CsrGraph adj = INST.time("condense", () -> ext.condense(comps.cid, comps.count));
+
+            DatasetResult dr = new DatasetResult();
+            dr.numEdges = ext.getEdgeCount();
+            dr.sccTimeMs = scc.getTimeMs();
+            dr.sccVisits = scc.getDfsVisits();
+            dr.sccEdges = scc.getEdgesProcessed();
+            dr.parseTimeMs = ext.getParseMs();
+            dr.parseAllocBytes = ext.getParseAllocBytes();
+            dr.sccEngine = "SCC-external";
+            dr.condTimeMs = ext.getCondenseMs();
+            dr.condInterEdges = ext.getInterEdges();
+            dr.condMerged = ext.getMerged();
+            dr.condEdges = ext.getEmitted();
+            System.out.println(" " + ext.report());
+            return solve(n, ext.getSource(), comps, adj, outFile, opts.pretty, dr);
         }
+    }
 
-        TopoSort topo = new TopoSort();
-        List<Integer> topoOrder = topo.sort(adj);
+    // topo order and both DAG sweeps over the condensation, then the result file; fills the rest of dr
+    static DatasetResult solve(int n, int source, Components comps, CsrGraph adj, Path outFile, boolean pretty, DatasetResult dr) throws IOException {
+        int[] cid = comps.cid;
+        int numComponents = comps.count;
+        TopoSort topo = new TopoSort(Workspace.local());
+        int[] topoOrder = INST.time("topo", () -> topo.sort(adj));
 
-        DAGSP dagsp = new DAGSP();
-        Map<String,Object> shortest = dagsp.shortest(adj, cid[source], topoOrder);
-        Map<String,Object> critical = dagsp.longest(adj, topoOrder);
+        DAGSP dagsp = new DAGSP(Workspace.local());
+        PathResult shortest = INST.time("shortest", () -> dagsp.shortestPaths(adj, cid[source], topoOrder));
+        PathResult critical = INST.time("longest", () -> dagsp.longestPaths(adj, topoOrder));
 
         // 🔧 Extract numeric path lengths for CSV
-        double shortestLen = extractLastDistance(shortest);
-        double criticalLen = extractCriticalLength(critical);
-
-        StringBuilder out = new StringBuilder();
-        out.append("{\n");
-        out.append("  \"SCC\": ").append(toJsonListOfLists(comps)).append(",\n");
-        out.append("  \"ComponentMap\": ").append(toJsonCompMap(cid)).append(",\n");
-        out.append("  \"CondensationGraph\": [");
-        boolean first = true;
-        for (int i = 0; i < adj.size(); i++) for (Edge e : adj.get(i)) {
-            if (!first) out.append(", "); first = false;
-            out.append("{\"from\":").append(i).append(",\"to\":").append(e.to).append(",\"w\":").append(e.w).append("}");
-        }
-        out.append("],\n");
-        out.append("  \"TopologicalOrder\": ").append(toJsonList(topoOrder)).append(",\n");
-        out.append("  \"ShortestPaths\": ").append(toJsonMapFormat(shortest)).append(",\n");
-        out.append("  \"CriticalPath\": ").append(toJsonMapFormat(critical)).append("\n");
-        out.append("}\n");
+        int last = shortest.lastReachable();
+        double shortestLen = last == -1 ? 0.0 : shortest.distanceTo(last);
+        double criticalLen = critical.target() == -1 ? 0.0 : critical.length();
+
+        INST.run("serialize", () -> {
+            try (ResultWriter out = new ResultWriter(outFile, pretty)) {
+                out.components(comps);
+                out.componentMap(cid);
+                out.condensation(adj);
+                out.topologicalOrder(topoOrder);
+                out.shortestPaths(shortest.distances(), shortest.pathTo(shortest.target()));
+                out.criticalPath(critical.distances(), critical.target(), critical.pathTo(critical.target()));
+            }
+        });
+        INST.count("datasets", 1);
+        INST.count("vertices", n);
+        INST.count("edges", dr.numEdges);
+        INST.count("components", numComponents);
+        INST.count("condensation_edges", adj.edgeCount());
+        INST.count("scc_visits", dr.sccVisits);
+        INST.count("scc_edges", dr.sccEdges);
+        INST.count("topo_pops", topo.getPops());
+        INST.count("dagsp_relaxations", dagsp.getRelaxations());
 
-        DatasetResult dr = new DatasetResult();
-        dr.resultJson = out.toString();
         dr.numComponents = numComponents;
         dr.numNodes = n;
-        dr.sccTimeMs = scc.getTimeMs();
-        dr.sccVisits = scc.getDfsVisits();
-        dr.sccEdges = scc.getEdgesProcessed();
         dr.topoPushes = topo.getPushes();
         dr.topoPops = topo.getPops();
         dr.dagspRelaxations = dagsp.getRelaxations();
@@ -178,152 +385,4 @@ public class BatchRunner {
         dr.criticalLength = criticalLen;
         return dr;
     }
-
-    // 🔧 Helper to extract numeric lengths
-    static double extractLastDistance(Map<String,Object> shortest) {
-        Object distObj = shortest.get("distances");
-        if (distObj instanceof Map) {
-            @SuppressWarnings("unchecked")
-            Map<Object,Object> m = (Map<Object,Object>)distObj;
-            if (m.isEmpty()) return 0.0;
-            Object lastVal = m.values().stream().reduce((a,b)->b).orElse(0.0);
-            return Double.parseDouble(lastVal.toString());
-        }
-        return 0.0;
-    }
-    static double extractCriticalLength(Map<String,Object> critical) {
-        Object len = critical.get("length");
-        if (len instanceof Number) return ((Number)len).doubleValue();
-        return 0.0;
-    }
-
-    // (same JSON helper methods as before, omitted for brevity)
-    // toJsonList, toJsonListOfLists, toJsonCompMap, toJsonMapFormat, escapeJson
-
-    static String escapeJson(String s) {
-        if (s == null) return "";
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < s.length(); i++) {
-            char ch = s.charAt(i);
-            switch (ch) {
-                case '"': sb.append("\\\""); break;
-                case '\\': sb.append("\\\\"); break;
-                case '\b': sb.append("\\b"); break;
-                case '\f': sb.append("\\f"); break;
-                case '\n': sb.append("\\n"); break;
-                case '\r': sb.append("\\r"); break;
-                case '\t': sb.append("\\t"); break;
-                default:
-                    if (ch < 0x20) sb.append(String.format("\\u%04x", (int) ch));
-                    else sb.append(ch);
-            }
-        }
-        return sb.toString();
-    }
-
-
-    static String toJsonMapFormat(Map<String, Object> map) {
-        StringBuilder sb = new StringBuilder("{");
-        boolean first = true;
-        for (Map.Entry<String, Object> e : map.entrySet()) {
-            if (!first) sb.append(", ");
-            first = false;
-            sb.append("\"").append(escapeJson(e.getKey())).append("\": ");
-            sb.append(toJsonValue(e.getValue()));
-        }
-        sb.append("}");
-        return sb.toString();
-    }
-
-    @SuppressWarnings("unchecked")
-    static String toJsonValue(Object v) {
-        if (v == null) return "null";
-        if (v instanceof Number || v instanceof Boolean) return v.toString();
-        if (v instanceof String) return "\"" + escapeJson((String) v) + "\"";
-        if (v instanceof Map) {
-            Map<Object, Object> m = (Map<Object, Object>) v;
-            StringBuilder sb = new StringBuilder("{");
-            boolean first = true;
-            for (Map.Entry<Object, Object> me : m.entrySet()) {
-                if (!first) sb.append(", ");
-                first = false;
-                sb.append("\"").append(escapeJson(String.valueOf(me.getKey()))).append("\": ");
-                sb.append(toJsonValue(me.getValue()));
-            }
-            sb.append("}");
-            return sb.toString();
-        }
-        if (v instanceof List) {
-            List<?> list = (List<?>) v;
-            StringBuilder sb = new StringBuilder("[");
-            for (int i = 0; i < list.size(); i++) {
-                if (i > 0) sb.append(", ");
-                sb.append(toJsonValue(list.get(i)));
-            }
-            sb.append("]");
-            return sb.toString();
-        }
-        return "\"" + escapeJson(v.toString()) + "\"";
-    }
-
-    static String toJsonList(List<?> list) {
-        StringBuilder sb = new StringBuilder("[");
-        for (int i = 0; i < list.size(); i++) {
-            Object v = list.get(i);
-            if (i > 0) sb.append(", ");
-            if (v instanceof Number || v instanceof Boolean)
-                sb.append(v);
-            else if (v instanceof Map)
-                sb.append(toJsonMap((Map<?, ?>) v));
-            else if (v instanceof List)
-                sb.append(toJsonList((List<?>) v));
-            else
-                sb.append("\"").append(v).append("\"");
-        }
-        sb.append("]");
-        return sb.toString();
-    }
-
-    static String toJsonMap(Map<?, ?> map) {
-        StringBuilder sb = new StringBuilder("{");
-        int i = 0;
-        for (var e : map.entrySet()) {
-            if (i++ > 0) sb.append(", ");
-            sb.append("\"").append(e.getKey()).append("\": ");
-            Object v = e.getValue();
-            if (v instanceof Number || v instanceof Boolean)
-                sb.append(v);
-            else if (v instanceof Map)
-                sb.append(toJsonMap((Map<?, ?>) v));
-            else if (v instanceof List)
-                sb.append(toJsonList((List<?>) v));
-            else
-                sb.append("\"").append(v).append("\"");
-        }
-        sb.append("}");
-        return sb.toString();
-    }
-
-
-    static String toJsonListOfLists(List<List<Integer>> lists) {
-        StringBuilder sb = new StringBuilder("[");
-        for (int i = 0; i < lists.size(); i++) {
-            if (i > 0) sb.append(", ");
-            sb.append(toJsonList(lists.get(i)));
-        }
-        sb.append("]");
-        return sb.toString();
-    }
-
-    static String toJsonCompMap(int[] cid) {
-        StringBuilder sb = new StringBuilder("{");
-        for (int i = 0; i < cid.length; i++) {
-            if (i > 0) sb.append(", ");
-            sb.append("\"").append(i).append("\": ").append(cid[i]);
-        }
-        sb.append("}");
-        return sb.toString();
-    }
-
-
 }
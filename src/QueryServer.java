@@ -0,0 +1,141 @@
+import com.sun.net.httpserver.*;
+import graph.*;
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.Executors;
+
+/**
+ * Local HTTP front end for PathQueryEngine.
+ *   GET /shortest?graph=small_2&src=0           distances from src's component
+ *   GET /shortest?graph=small_2&src=0&dst=5     one source -> target path
+ *   GET /shortest?...&exact=true                the same as vertex-level distances / paths, including
+ *                                               the weights inside cyclic components
+ *   GET /reaches?graph=small_2&src=0&dst=5      whether dst is reachable from src (reachability index)
+ *   GET /critical?graph=small_2                 critical path of the condensation
+ *   GET /stats                                  cache and per-query latency counters
+ * graph is a dataset name (or file name) inside the data directory; .csr is preferred over .json.
+ */
+public class QueryServer {
+
+    // usage: QueryServer [dataDir] [--port 8080] [--cache-mb 256]
+    public static void main(String[] args) throws Exception {
+        String dataArg = "data";
+        int port = 8080;
+        long cacheMb = 256;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port": port = Integer.parseInt(args[++i]); break;
+                case "--cache-mb": cacheMb = Long.parseLong(args[++i]); break;
+                default: dataArg = args[i];
+            }
+        }
+        Path dataDir = Path.of(dataArg);
+        PathQueryEngine engine = new PathQueryEngine(cacheMb << 20);
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/shortest", ex -> handle(ex, q -> {
+            Path file = resolve(dataDir, q);
+            int src = intParam(q, "src");
+            boolean exact = Boolean.parseBoolean(q.get("exact"));
+            if (q.containsKey("dst")) {
+                int dst = intParam(q, "dst");
+                PathQueryEngine.PathAnswer a = exact ? engine.exactShortest(file, src, dst) : engine.shortest(file, src, dst);
+                return "{\"length\": " + lengthJson(a.length) + ", \"path\": " + Arrays.toString(a.path) + "}";
+            }
+            double[] d = exact ? engine.exactShortest(file, src) : engine.shortest(file, src);
+            StringBuilder sb = new StringBuilder("{\"distances\": {");
+            boolean first = true;
+            for (int c = 0; c < d.length; c++) {
+                if (Double.isInfinite(d[c])) continue;
+                if (!first) sb.append(", ");
+                first = false;
+                sb.append('"').append(c).append("\": ").append(d[c]);
+            }
+            return sb.append("}}").toString();
+        }));
+        server.createContext("/reaches", ex -> handle(ex, q ->
+                "{\"reachable\": " + engine.reaches(resolve(dataDir, q), intParam(q, "src"), intParam(q, "dst")) + "}"));
+        server.createContext("/critical", ex -> handle(ex, q -> {
+            PathQueryEngine.PathAnswer a = engine.critical(resolve(dataDir, q));
+            return "{\"length\": " + lengthJson(a.length) + ", \"path\": " + Arrays.toString(a.path) + "}";
+        }));
+        server.createContext("/stats", ex -> handle(ex, q -> {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format(Locale.ROOT, "{\"graphs\": %d, \"bytes\": %d, \"hits\": %d, \"misses\": %d, \"evictions\": %d, \"queries\": {",
+                    engine.getCachedGraphs(), engine.getCachedBytes(), engine.getHits(), engine.getMisses(), engine.getEvictions()));
+            boolean first = true;
+            for (Map.Entry<String, PathQueryEngine.QueryStats> e : engine.getQueryStats().entrySet()) {
+                if (!first) sb.append(", ");
+                first = false;
+                sb.append(String.format(Locale.ROOT, "\"%s\": {\"count\": %d, \"mean_ms\": %.3f, \"max_ms\": %.3f}",
+                        e.getKey(), e.getValue().getCount(), e.getValue().getMeanMs(), e.getValue().getMaxMs()));
+            }
+            return sb.append("}}").toString();
+        }));
+        server.setExecutor(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()));
+        server.start();
+        System.out.println("Query server on http://localhost:" + port + "/ serving " + dataDir.toAbsolutePath());
+    }
+
+    interface Handler { String answer(Map<String, String> query) throws Exception; }
+
+    static void handle(HttpExchange ex, Handler h) throws IOException {
+        int status = 200;
+        String body;
+        try {
+            body = h.answer(parseQuery(ex.getRequestURI().getRawQuery()));
+        } catch (NoSuchFileException e) {
+            status = 404;
+            body = "{\"error\": \"unknown graph " + e.getMessage().replace("\"", "'") + "\"}";
+        } catch (IllegalArgumentException e) {
+            status = 400;
+            body = "{\"error\": \"" + String.valueOf(e.getMessage()).replace("\"", "'") + "\"}";
+        } catch (Exception e) {
+            status = 500;
+            body = "{\"error\": \"" + String.valueOf(e).replace("\"", "'") + "\"}";
+        }
+        byte[] bytes = (body + "\n").getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json");
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = ex.getResponseBody()) { os.write(bytes); }
+    }
+
+    static Map<String, String> parseQuery(String raw) {
+        Map<String, String> q = new HashMap<>();
+        if (raw == null) return q;
+        for (String kv : raw.split("&")) {
+            int eq = kv.indexOf('=');
+            if (eq < 0) q.put(URLDecoder.decode(kv, StandardCharsets.UTF_8), "");
+            else q.put(URLDecoder.decode(kv.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(kv.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return q;
+    }
+
+    // graph name -> dataset file inside dataDir (no path traversal)
+    static Path resolve(Path dataDir, Map<String, String> q) throws NoSuchFileException {
+        String name = q.get("graph");
+        if (name == null || name.isEmpty() || name.contains("/") || name.contains("\\") || name.startsWith("."))
+            throw new IllegalArgumentException("missing or invalid graph parameter");
+        for (String candidate : new String[]{name, name + BinaryGraph.EXTENSION, name + ".json"}) {
+            Path p = dataDir.resolve(candidate);
+            if (Files.isRegularFile(p) && DatasetReader.isDataset(p)) return p;
+        }
+        throw new NoSuchFileException(name);
+    }
+
+    static int intParam(Map<String, String> q, String key) {
+        String v = q.get(key);
+        if (v == null) throw new IllegalArgumentException("missing parameter " + key);
+        try {
+            return Integer.parseInt(v);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("parameter " + key + " is not an integer");
+        }
+    }
+
+    static String lengthJson(double len) { return Double.isInfinite(len) ? "null" : String.valueOf(len); }
+}
@@ -0,0 +1,83 @@
+package bench;
+
+import graph.*;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic seeded graph generators for benchmarks. Every generator targets
+ * roughly m edges and returns a Dataset, so the result can be fed to the algorithms
+ * directly or serialized for the parsing benchmarks. Weights are integers 1..9.
+ */
+public final class Generators {
+
+    private Generators() {}
+
+    public enum Shape { CHAIN, RANDOM_DAG, LAYERED_DAG, SCC_HEAVY }
+
+    public static Dataset generate(Shape shape, int m, long seed) {
+        switch (shape) {
+            case CHAIN: return chain(m, seed);
+            case RANDOM_DAG: return randomDag(m, seed);
+            case LAYERED_DAG: return layeredDag(m, seed);
+            default: return sccHeavy(m, seed);
+        }
+    }
+
+    // 0 -> 1 -> ... -> m: worst case for DFS depth
+    public static Dataset chain(int m, long seed) {
+        SplittableRandom r = new SplittableRandom(seed);
+        EdgeList e = new EdgeList(m);
+        for (int i = 0; i < m; i++) e.add(i, i + 1, weight(r));
+        return new Dataset(m + 1, true, 0, "edge", e);
+    }
+
+    // n = m/4 vertices, random forward edges u < v (average out-degree 4)
+    public static Dataset randomDag(int m, long seed) {
+        SplittableRandom r = new SplittableRandom(seed);
+        int n = Math.max(2, m / 4);
+        EdgeList e = new EdgeList(m);
+        for (int i = 0; i < m; i++) {
+            int a = r.nextInt(n), b = r.nextInt(n - 1);
+            if (b >= a) b++;
+            e.add(Math.min(a, b), Math.max(a, b), weight(r));
+        }
+        return new Dataset(n, true, 0, "edge", e);
+    }
+
+    // wide, shallow DAG: ~sqrt(n)/4 layers, edges only between consecutive layers
+    public static Dataset layeredDag(int m, long seed) {
+        SplittableRandom r = new SplittableRandom(seed);
+        int n = Math.max(4, m / 4);
+        int layers = Math.max(2, (int) Math.sqrt(n) / 4);
+        int width = Math.max(1, n / layers);
+        n = layers * width;
+        EdgeList e = new EdgeList(m);
+        for (int i = 0; i < m; i++) {
+            int layer = r.nextInt(layers - 1);
+            e.add(layer * width + r.nextInt(width), (layer + 1) * width + r.nextInt(width), weight(r));
+        }
+        return new Dataset(n, true, 0, "edge", e);
+    }
+
+    // clusters of 8 vertices closed into cycles, a random DAG between clusters,
+    // and a few back edges that merge clusters into larger components
+    public static Dataset sccHeavy(int m, long seed) {
+        SplittableRandom r = new SplittableRandom(seed);
+        int k = 8;
+        int clusters = Math.max(2, m / (2 * k));
+        int n = clusters * k;
+        EdgeList e = new EdgeList(m);
+        for (int c = 0; c < clusters && e.size() < m; c++)
+            for (int i = 0; i < k; i++) e.add(c * k + i, c * k + (i + 1) % k, weight(r));
+        while (e.size() < m) {
+            int a = r.nextInt(clusters), b = r.nextInt(clusters);
+            if (a == b) continue;
+            // ~1% of inter-cluster edges point backwards
+            if (a > b && r.nextInt(100) != 0) { int t = a; a = b; b = t; }
+            e.add(a * k + r.nextInt(k), b * k + r.nextInt(k), weight(r));
+        }
+        return new Dataset(n, true, 0, "edge", e);
+    }
+
+    private static double weight(SplittableRandom r) { return 1 + r.nextInt(9); }
+}
@@ -0,0 +1,197 @@
+package bench;
+
+import graph.*;
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Warmed-up micro-benchmark harness for the graph pipeline (no external dependencies).
+ * For every shape x size it builds the inputs once, runs each benchmark for warmup
+ * iterations (discarded, lets the JIT settle) and then measured iterations, recording
+ * wall time and bytes allocated by the benchmark thread per operation.
+ * Results go to the console and to a CSV (default results/bench.csv).
+ *
+ * usage: java bench.GraphBench [--sizes 1000,10000,...] [--max-edges N] [--shapes chain,random_dag,...]
+ *                              [--bench parse,load,scc,scc-workspace,scc-parallel,scc-incremental,scc-offheap,condense,topo,topo-parallel,shortest,longest,critical-parallel,shortest-batch,reach-index,shortest-hybrid]
+ *                              [--warmup 5] [--iters 10] [--seed 42] [--out results/bench.csv]
+ */
+public class GraphBench {
+
+    static final List<String> ALL = List.of("parse", "load", "scc", "scc-workspace", "scc-parallel", "scc-incremental", "scc-offheap", "condense", "topo", "topo-parallel", "shortest", "longest", "critical-parallel", "shortest-batch", "reach-index", "shortest-hybrid");
+
+    // keeps results alive so the JIT cannot drop the work
+    static volatile long sink;
+
+    interface Op { long run() throws Exception; }
+
+    public static void main(String[] args) throws Exception {
+        List<Integer> sizes = new ArrayList<>(List.of(1_000, 10_000, 100_000, 1_000_000));
+        List<Generators.Shape> shapes = new ArrayList<>(List.of(Generators.Shape.values()));
+        List<String> benches = new ArrayList<>(ALL);
+        int warmup = 5, iters = 10;
+        long seed = 42;
+        Path out = Path.of("results", "bench.csv");
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--sizes":
+                    sizes.clear();
+                    for (String s : args[++i].split(",")) sizes.add((int) Double.parseDouble(s));
+                    break;
+                case "--max-edges":
+                    sizes.clear();
+                    for (long s = 1_000, max = (long) Double.parseDouble(args[++i]); s <= max; s *= 10) sizes.add((int) s);
+                    break;
+                case "--shapes":
+                    shapes.clear();
+                    for (String s : args[++i].split(",")) shapes.add(Generators.Shape.valueOf(s.toUpperCase(Locale.ROOT)));
+                    break;
+                case "--bench": benches = List.of(args[++i].split(",")); break;
+                case "--warmup": warmup = Integer.parseInt(args[++i]); break;
+                case "--iters": iters = Integer.parseInt(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                case "--out": out = Path.of(args[++i]); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        if (out.getParent() != null) Files.createDirectories(out.getParent());
+        Path tmp = Files.createTempDirectory("graphbench");
+        try (BufferedWriter csv = Files.newBufferedWriter(out)) {
+            csv.write("benchmark,shape,edges,vertices,iters,median_ms,min_ms,ns_per_edge,medges_per_s,alloc_bytes_per_op\n");
+            System.out.printf("%-15s %-12s %10s %10s %11s %11s %9s %9s %14s%n",
+                    "benchmark", "shape", "edges", "vertices", "median ms", "min ms", "ns/edge", "Medges/s", "alloc B/op");
+            for (Generators.Shape shape : shapes) {
+                for (int size : sizes) {
+                    Fixture f = new Fixture(shape, size, seed, tmp, benches);
+                    for (String b : benches) {
+                        Op op = f.op(b);
+                        long[][] r = measure(op, warmup, iters);
+                        long medNs = median(r[0]), minNs = Arrays.stream(r[0]).min().orElse(0);
+                        long alloc = median(r[1]);
+                        int m = f.data.edges.size();
+                        double nsPerEdge = m == 0 ? 0 : (double) medNs / m;
+                        double medges = medNs == 0 ? 0 : m / (medNs / 1e9) / 1e6;
+                        System.out.printf(Locale.ROOT, "%-15s %-12s %10d %10d %11.3f %11.3f %9.2f %9.2f %14d%n",
+                                b, shape.name().toLowerCase(Locale.ROOT), m, f.data.n, medNs / 1e6, minNs / 1e6, nsPerEdge, medges, alloc);
+                        csv.write(String.format(Locale.ROOT, "%s,%s,%d,%d,%d,%.3f,%.3f,%.3f,%.3f,%d\n",
+                                b, shape.name().toLowerCase(Locale.ROOT), m, f.data.n, iters, medNs / 1e6, minNs / 1e6, nsPerEdge, medges, alloc));
+                        csv.flush();
+                    }
+                    f.close();
+                }
+            }
+        } finally {
+            try (var s = Files.list(tmp)) { s.forEach(p -> p.toFile().delete()); }
+            Files.deleteIfExists(tmp);
+        }
+        System.out.println("Benchmark CSV at: " + out.toAbsolutePath());
+    }
+
+    // returns {nanos[], allocatedBytes[]} of the measured iterations
+    static long[][] measure(Op op, int warmup, int iters) throws Exception {
+        for (int i = 0; i < warmup; i++) sink += op.run();
+        long[] ns = new long[iters], alloc = new long[iters];
+        for (int i = 0; i < iters; i++) {
+            long a0 = Metrics.threadAllocatedBytes();
+            long t0 = System.nanoTime();
+            sink += op.run();
+            ns[i] = System.nanoTime() - t0;
+            alloc[i] = Metrics.threadAllocatedBytes() - a0;
+        }
+        return new long[][]{ns, alloc};
+    }
+
+    static long median(long[] a) {
+        long[] s = a.clone();
+        Arrays.sort(s);
+        return s.length == 0 ? 0 : s[s.length / 2];
+    }
+
+    /** Inputs for one shape x size, built outside the measured region. */
+    static final class Fixture {
+        final Dataset data;
+        final CsrGraph graph;
+        final Components comps;
+        final CsrGraph cond;
+        final int[] order;
+        final int[] prev;
+        final int src;
+        final int[] batchSources;
+        Path json, bin;
+
+        Fixture(Generators.Shape shape, int m, long seed, Path tmp, List<String> benches) throws IOException {
+            data = Generators.generate(shape, m, seed);
+            graph = data.graph();
+            comps = new SCC(data.n).components(graph);
+            cond = new Condensation().build(comps, data.edges);
+            order = new TopoSort().sort(cond);
+            prev = new int[cond.n];
+            src = comps.cid[data.source];
+            // 64 sources spread over the topo order
+            batchSources = new int[Math.min(64, order.length)];
+            for (int i = 0; i < batchSources.length; i++) batchSources[i] = order[(int) ((long) i * order.length / batchSources.length)];
+            if (benches.contains("parse")) {
+                json = tmp.resolve(shape + "_" + m + ".json");
+                writeJson(data, json);
+            }
+            if (benches.contains("load")) {
+                bin = tmp.resolve(shape + "_" + m + BinaryGraph.EXTENSION);
+                BinaryGraph.write(data, bin);
+            }
+        }
+
+        Op op(String name) {
+            switch (name) {
+                case "parse": return () -> new DatasetParser().parse(json).edges.size();
+                case "load": return () -> new BinaryGraph().load(bin).edgeCount();
+                case "scc": return () -> new SCC(graph.n).components(graph).count;
+                case "scc-workspace": return () -> new SCC(graph.n, Workspace.local()).components(graph).count;
+                case "scc-parallel": return () -> new ParallelSCC().components(graph).count;
+                case "scc-offheap": return () -> {
+                    // includes copying the graph into the arena and freeing it again
+                    try (OffHeapArena arena = new OffHeapArena()) {
+                        OffHeapGraph og = OffHeapGraph.of(graph, arena);
+                        return new SCC(og.n).components(og, arena, arena.ints(og.n));
+                    }
+                };
+                case "scc-incremental": return () -> {
+                    // every edge streamed in one at a time
+                    IncrementalSCC inc = new IncrementalSCC(graph.n);
+                    EdgeList el = data.edges;
+                    for (int i = 0; i < el.size(); i++) inc.addEdge(el.from(i), el.to(i), el.weight(i));
+                    return inc.componentCount();
+                };
+                case "condense": return () -> new Condensation().build(comps, data.edges).edgeCount();
+                case "topo": return () -> new TopoSort().sort(cond).length;
+                case "topo-parallel": return () -> new ParallelTopoSort().sort(cond).length;
+                case "shortest": return () -> (long) new DAGSP().shortestDistances(cond, src, order, prev)[order[order.length - 1]];
+                case "shortest-batch": return () -> new MultiSourceSP().shortest(cond, order, batchSources).getRelaxations(0);
+                case "longest": return () -> (long) new DAGSP().longestDistances(cond, order, prev)[order[order.length - 1]];
+                case "critical-parallel": return () -> (long) new ParallelCriticalPath().run(cond).length;
+                case "reach-index": return () -> new ReachabilityIndex(cond, order).getBytes();
+                case "shortest-hybrid": return () -> (long) new HybridShortestPaths().run(graph, comps, order, data.source).target();
+                default: throw new IllegalArgumentException("Unknown benchmark: " + name + " (known: " + ALL + ")");
+            }
+        }
+
+        void close() throws IOException {
+            if (json != null) Files.deleteIfExists(json);
+            if (bin != null) Files.deleteIfExists(bin);
+        }
+    }
+
+    // same layout as the files in data/
+    static void writeJson(Dataset ds, Path file) throws IOException {
+        try (BufferedWriter w = Files.newBufferedWriter(file)) {
+            w.write("{\n  \"n\": " + ds.n + ",\n  \"directed\": " + ds.directed + ",\n  \"edges\": [\n");
+            EdgeList e = ds.edges;
+            for (int i = 0; i < e.size(); i++) {
+                w.write("    {\"u\": " + e.from(i) + ", \"v\": " + e.to(i) + ", \"w\": " + (long) e.weight(i) + "}");
+                w.write(i + 1 < e.size() ? ",\n" : "\n");
+            }
+            w.write("  ],\n  \"source\": " + ds.source + ",\n  \"weight_model\": \"" + ds.weightModel + "\"\n}\n");
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package graph;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Compact binary graph file (.csr), all little-endian:
+ *   magic "CSRG", int version, int n, int flags (bit 0 = directed), int source, int m,
+ *   int weightModel byte length (-1 = absent), weightModel UTF-8 bytes, zero padding to 8,
+ *   int offsets[n+1], int targets[m], int inputPos[m], zero padding to 8, double weights[m].
+ * inputPos[e] is the position of CSR slot e in the original edge list; with it the
+ * condensation (and the symmetric graph of an undirected file) come out in input order,
+ * so results match the JSON path exactly. The loader memory-maps the file and bulk-copies
+ * each section into the CSR arrays it returns; no edge list is rebuilt and nothing is parsed.
+ *
+ * Converter: java graph.BinaryGraph <file.json|dir>...  (writes file.csr next to each input)
+ */
+public class BinaryGraph implements DatasetReader {
+
+    public static final String EXTENSION = ".csr";
+    private static final int MAGIC = 0x47525343; // "CSRG" read as little-endian int
+    private static final int VERSION = 1;
+    private static final int CHUNK = 1 << 30;    // max bytes per mapped region
+
+    // metrics
+    private long startNs = 0, endNs = 0;
+    private long bytesMapped = 0, allocatedBytes = 0;
+
+    public BinaryGraph() { reset(); }
+
+    public static void main(String[] args) throws IOException {
+        DatasetParser parser = new DatasetParser();
+        for (String a : args) {
+            Path p = Path.of(a);
+            List<Path> inputs = new ArrayList<>();
+            if (Files.isDirectory(p)) {
+                try (var s = Files.list(p)) { s.filter(f -> f.toString().endsWith(".json")).sorted().forEach(inputs::add); }
+            } else inputs.add(p);
+            for (Path in : inputs) {
+                Path out = in.resolveSibling(in.getFileName().toString().replaceFirst("\\.json$", "") + EXTENSION);
+                write(parser.parse(in), out);
+                System.out.printf("%s -> %s (%d bytes)%n", in, out.getFileName(), Files.size(out));
+            }
+        }
+    }
+
+    public static void write(Dataset ds, Path file) throws IOException {
+        int n = ds.n, m = ds.edges.size();
+        int[] from = ds.edges.fromArray(), to = ds.edges.toArray();
+        double[] w = ds.edges.weightArray();
+
+        // same stable counting sort as CsrGraph.build, also recording each slot's input position
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < m; i++) offsets[from[i] + 1]++;
+        for (int u = 0; u < n; u++) offsets[u + 1] += offsets[u];
+        int[] targets = new int[m], inputPos = new int[m];
+        double[] weights = new double[m];
+        int[] cursor = Arrays.copyOf(offsets, n);
+        for (int i = 0; i < m; i++) {
+            int p = cursor[from[i]]++;
+            targets[p] = to[i]; weights[p] = w[i]; inputPos[p] = i;
+        }
+
+        byte[] model = ds.weightModel == null ? null : ds.weightModel.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer header = ByteBuffer.allocate(pad8(28 + (model == null ? 0 : model.length))).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(ds.directed ? 1 : 0).putInt(ds.source).putInt(m);
+        header.putInt(model == null ? -1 : model.length);
+        if (model != null) header.put(model);
+        header.position(header.capacity()).flip();
+
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) ch.write(header);
+            writeInts(ch, buf, offsets, n + 1);
+            writeInts(ch, buf, targets, m);
+            writeInts(ch, buf, inputPos, m);
+            if ((((long) n + 1 + 2L * m) & 1) != 0) writeInts(ch, buf, new int[1], 1);
+            writeDoubles(ch, buf, weights, m);
+        }
+    }
+
+    @Override
+    public Dataset read(Path file) throws IOException { return load(file); }
+
+    public Dataset load(Path file) throws IOException {
+        reset();
+        long alloc0 = Metrics.threadAllocatedBytes();
+        start();
+        Dataset ds;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            Header h = readHeader(ch, file);
+            int n = h.n, m = h.m;
+            long pos = h.dataPos;
+
+            int[] offsets = new int[n + 1], targets = new int[m], inputPos = new int[m];
+            double[] weights = new double[m];
+            pos = readInts(ch, pos, offsets);
+            pos = readInts(ch, pos, targets);
+            pos = readInts(ch, pos, inputPos);
+            pos = pad8(pos);
+            pos = readDoubles(ch, pos, weights);
+            bytesMapped = pos;
+            if (offsets[0] != 0 || offsets[n] != m) throw corrupt(file, "offsets do not span the " + m + " edges");
+            ds = new Dataset(n, h.directed, h.source, h.model, CsrGraph.wrap(n, offsets, targets, weights), inputPos);
+        }
+        stop();
+        allocatedBytes = Metrics.threadAllocatedBytes() - alloc0;
+        return ds;
+    }
+
+    /**
+     * Loads the graph straight into arena memory: each section is mapped and copied
+     * into direct buffers, so no edge-sized array touches the heap. inputPos is skipped;
+     * undirected graphs come back symmetric (see OffHeapGraph.symmetric).
+     */
+    public OffHeapGraph loadOffHeap(Path file, OffHeapArena arena) throws IOException {
+        reset();
+        long alloc0 = Metrics.threadAllocatedBytes();
+        start();
+        OffHeapGraph g;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            Header h = readHeader(ch, file);
+            OffHeapArena.Ints offsets = arena.ints(h.n + 1), targets = arena.ints(h.m);
+            OffHeapArena.Doubles weights = arena.doubles(h.m);
+            long pos = offsets.readFrom(ch, h.dataPos);
+            pos = targets.readFrom(ch, pos);
+            pos = pad8(pos + 4L * h.m);
+            pos = weights.readFrom(ch, pos);
+            bytesMapped = pos;
+            g = new OffHeapGraph(h.n, h.m, offsets, targets, weights, h.source);
+            if (!h.directed) g = g.symmetric(arena);
+        }
+        stop();
+        allocatedBytes = Metrics.threadAllocatedBytes() - alloc0;
+        return g;
+    }
+
+    private static final class Header {
+        int n, m, source;
+        boolean directed;
+        String model;
+        long dataPos;   // start of the offsets section
+    }
+
+    // validates the header and that every section lies inside the file before anything is mapped
+    private static Header readHeader(FileChannel ch, Path file) throws IOException {
+        long size = ch.size();
+        ByteBuffer head = readFully(ch, 0, (int) Math.min(size, 28));
+        if (head.remaining() < 28 || head.getInt() != MAGIC) throw new IOException("Not a " + EXTENSION + " graph file: " + file);
+        int version = head.getInt();
+        if (version != VERSION) throw new IOException("Unsupported " + EXTENSION + " version " + version + ": " + file);
+        Header h = new Header();
+        h.n = head.getInt();
+        h.directed = (head.getInt() & 1) != 0;
+        h.source = head.getInt();
+        h.m = head.getInt();
+        int modelLen = head.getInt();
+        if (h.n < 0 || h.n == Integer.MAX_VALUE) throw corrupt(file, "n = " + h.n);
+        if (h.m < 0) throw corrupt(file, "m = " + h.m);
+        if (modelLen < -1 || 28L + modelLen > size) throw corrupt(file, "weight model length " + modelLen);
+        if (modelLen > 0) h.model = StandardCharsets.UTF_8.decode(readFully(ch, 28, modelLen)).toString();
+        else if (modelLen == 0) h.model = "";
+        h.dataPos = pad8(28 + Math.max(modelLen, 0));
+        long end = pad8(h.dataPos + 4L * (h.n + 1L) + 8L * h.m) + 8L * h.m;
+        if (end > size) throw corrupt(file, "sections need " + end + " bytes, file has " + size);
+        return h;
+    }
+
+    private static IOException corrupt(Path file, String what) {
+        return new IOException("Corrupt " + EXTENSION + " graph file " + file + ": " + what);
+    }
+
+    private static ByteBuffer readFully(FileChannel ch, long pos, int len) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(len).order(ByteOrder.LITTLE_ENDIAN);
+        while (b.hasRemaining()) if (ch.read(b, pos + b.position()) < 0) break;
+        return b.flip();
+    }
+
+    // ---- section I/O ----
+
+    private static long pad8(long p) { return (p + 7) & ~7L; }
+
+    private static int pad8(int p) { return (p + 7) & ~7; }
+
+    private static long readInts(FileChannel ch, long pos, int[] dst) throws IOException {
+        int done = 0;
+        while (done < dst.length) {
+            int count = Math.min(dst.length - done, CHUNK / 4);
+            ch.map(FileChannel.MapMode.READ_ONLY, pos, 4L * count).order(ByteOrder.LITTLE_ENDIAN)
+                    .asIntBuffer().get(dst, done, count);
+            done += count;
+            pos += 4L * count;
+        }
+        return pos;
+    }
+
+    private static long readDoubles(FileChannel ch, long pos, double[] dst) throws IOException {
+        int done = 0;
+        while (done < dst.length) {
+            int count = Math.min(dst.length - done, CHUNK / 8);
+            ch.map(FileChannel.MapMode.READ_ONLY, pos, 8L * count).order(ByteOrder.LITTLE_ENDIAN)
+                    .asDoubleBuffer().get(dst, done, count);
+            done += count;
+            pos += 8L * count;
+        }
+        return pos;
+    }
+
+    private static void writeInts(FileChannel ch, ByteBuffer buf, int[] a, int len) throws IOException {
+        for (int i = 0; i < len; ) {
+            buf.clear();
+            int count = Math.min(len - i, buf.capacity() / 4);
+            buf.asIntBuffer().put(a, i, count);
+            buf.limit(4 * count);
+            while (buf.hasRemaining()) ch.write(buf);
+            i += count;
+        }
+    }
+
+    private static void writeDoubles(FileChannel ch, ByteBuffer buf, double[] a, int len) throws IOException {
+        for (int i = 0; i < len; ) {
+            buf.clear();
+            int count = Math.min(len - i, buf.capacity() / 8);
+            buf.asDoubleBuffer().put(a, i, count);
+            buf.limit(8 * count);
+            while (buf.hasRemaining()) ch.write(buf);
+            i += count;
+        }
+    }
+
+    // Metrics
+    @Override public void start() { startNs = System.nanoTime(); }
+    @Override public void stop() { endNs = System.nanoTime(); }
+    @Override public void reset() { bytesMapped = allocatedBytes = 0; startNs = endNs = 0; }
+    @Override public long getTimeNanos() { return endNs - startNs; }
+    @Override public double getTimeMillis() { return (endNs - startNs) / 1_000_000.0; }
+
+    @Override
+    public String report() {
+        return String.format("BinaryLoad(bytes=%d alloc=%d time=%.3fms)", bytesMapped, allocatedBytes, getTimeMillis());
+    }
+
+    // getters
+    public long getBytesMapped() { return bytesMapped; }
+    @Override public long getAllocatedBytes() { return allocatedBytes; }
+    @Override public double getTimeMs() { return getTimeMillis(); }
+}
@@ -0,0 +1,85 @@
+package graph;
+
+import java.util.*;
+
+/**
+ * Flat SCC result: vertices of component c are comp[compStart[c] .. compStart[c+1]),
+ * cid[v] is the component of vertex v. Components are numbered in discovery
+ * (reverse topological) order, the same order SCC.run returns its lists in.
+ */
+public final class Components {
+    public final int count;
+    public final int[] comp;
+    public final int[] compStart;
+    public final int[] cid;
+
+    public Components(int count, int[] comp, int[] compStart, int[] cid) {
+        this.count = count;
+        this.comp = comp;
+        this.compStart = compStart;
+        this.cid = cid;
+    }
+
+    public int size(int c) { return compStart[c + 1] - compStart[c]; }
+
+    /**
+     * The partition given by label (same label iff same component, labels in [0, n)) numbered
+     * exactly as SCC.runFlat numbers it over g. Tarjan's DFS order does not depend on the
+     * low-links, so a plain DFS in the same vertex and edge order suffices: a component gets
+     * its id when its first discovered vertex finishes, and lists its members in reverse
+     * discovery order, the order Tarjan pops them.
+     */
+    public static Components inTarjanOrder(CsrGraph g, int[] label) {
+        int n = g.n;
+        int[] off = g.offsets, tgt = g.targets;
+        int[] root = new int[n], id = new int[n];   // per label: first discovered vertex, final id
+        Arrays.fill(root, -1);
+        int[] disc = new int[n], stack = new int[n], cursor = new int[n];
+        boolean[] seen = new boolean[n];
+        int d = 0, count = 0;
+        for (int r = 0; r < n; r++) {
+            if (seen[r]) continue;
+            seen[r] = true;
+            disc[d++] = r;
+            if (root[label[r]] == -1) root[label[r]] = r;
+            int sp = 0;
+            stack[sp] = r; cursor[sp] = off[r]; sp++;
+            while (sp > 0) {
+                int v = stack[sp - 1], e = cursor[sp - 1];
+                if (e < off[v + 1]) {
+                    cursor[sp - 1] = e + 1;
+                    int w = tgt[e];
+                    if (!seen[w]) {
+                        seen[w] = true;
+                        disc[d++] = w;
+                        if (root[label[w]] == -1) root[label[w]] = w;
+                        stack[sp] = w; cursor[sp] = off[w]; sp++;
+                    }
+                    continue;
+                }
+                if (root[label[v]] == v) id[label[v]] = count++;
+                sp--;
+            }
+        }
+        int[] cid = new int[n], compStart = new int[count + 1];
+        for (int v = 0; v < n; v++) {
+            cid[v] = id[label[v]];
+            compStart[cid[v] + 1]++;
+        }
+        for (int c = 0; c < count; c++) compStart[c + 1] += compStart[c];
+        int[] fill = Arrays.copyOf(compStart, count), comp = new int[n];
+        for (int k = n - 1; k >= 0; k--) comp[fill[cid[disc[k]]]++] = disc[k];
+        return new Components(count, comp, compStart, cid);
+    }
+
+    // boxed view, same shape as SCC.run()
+    public List<List<Integer>> toLists() {
+        List<List<Integer>> lists = new ArrayList<>(count);
+        for (int c = 0; c < count; c++) {
+            List<Integer> l = new ArrayList<>(size(c));
+            for (int i = compStart[c]; i < compStart[c + 1]; i++) l.add(comp[i]);
+            lists.add(l);
+        }
+        return lists;
+    }
+}
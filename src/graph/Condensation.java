@@ -0,0 +1,175 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * Builds the condensation DAG from a vertex -> component map and an edge list.
+ * Parallel inter-component edges are merged keeping the minimum weight, using an
+ * open-addressing table keyed by the packed (a,b) pair - no String keys, no boxing.
+ * Edges are emitted in first-occurrence order, so each component's out-edges come
+ * out in the same order as the old LinkedHashMap-based dedup.
+ */
+public class Condensation implements Metrics {
+
+    private static final long EMPTY = -1L;
+
+    private long[] keys = new long[0];
+    private int[] slotEdge = new int[0];
+    private int mask;
+
+    // metrics
+    private long startNs = 0, endNs = 0;
+    private long interEdges = 0, merged = 0, emitted = 0;
+
+    public Condensation() { reset(); }
+
+    public CsrGraph build(Components comps, EdgeList edges) {
+        return build(comps.cid, comps.count, edges.fromArray(), edges.toArray(), edges.weightArray(), edges.size());
+    }
+
+    // from the edge list, or from the CSR and input positions of a binary dataset
+    public CsrGraph build(Components comps, Dataset data) {
+        return data.edges != null ? build(comps, data.edges) : build(comps, data.graph(), data.inputPos());
+    }
+
+    /**
+     * The same condensation from a CSR whose slot e was input edge inputPos[e], without
+     * rebuilding the edge list. The dedup runs in CSR order and keeps each pair's smallest
+     * input position; the distinct pairs are then sorted by it, which restores the
+     * first-occurrence order the edge-list build emits.
+     */
+    public CsrGraph build(Components comps, CsrGraph g, int[] inputPos) {
+        reset();
+        start();
+        int[] cid = comps.cid, off = g.offsets, tgt = g.targets;
+        double[] wt = g.weights;
+        int m = g.edgeCount();
+        EdgeList out = new EdgeList(Math.min(m, 1 << 16));
+        int[] first = new int[16];
+        prepareTable(Math.min(m, 1 << 16));
+        int size = 0;
+        for (int u = 0; u < g.n; u++) {
+            int a = cid[u];
+            for (int e = off[u], end = off[u + 1]; e < end; e++) {
+                int b = cid[tgt[e]];
+                if (a == b) continue;
+                if (Instrumentation.COUNTERS) interEdges++;
+                long key = ((long) a << 32) | (b & 0xFFFFFFFFL);
+                int slot = (int) mix(key) & mask;
+                while (keys[slot] != EMPTY && keys[slot] != key) slot = (slot + 1) & mask;
+                if (keys[slot] == key) {
+                    int k = slotEdge[slot];
+                    if (wt[e] < out.weight(k)) out.setWeight(k, wt[e]);
+                    if (inputPos[e] < first[k]) first[k] = inputPos[e];
+                    if (Instrumentation.COUNTERS) merged++;
+                    continue;
+                }
+                keys[slot] = key;
+                slotEdge[slot] = out.size();
+                if (out.size() == first.length) first = Arrays.copyOf(first, first.length * 2);
+                first[out.size()] = inputPos[e];
+                out.add(a, b, wt[e]);
+                if (++size * 2 > keys.length) rehash();
+            }
+        }
+        long[] order = new long[out.size()];
+        for (int k = 0; k < order.length; k++) order[k] = ((long) first[k] << 32) | k;
+        Arrays.sort(order);
+        EdgeList sorted = new EdgeList(Math.max(1, order.length));
+        for (long o : order) {
+            int k = (int) o;
+            sorted.add(out.from(k), out.to(k), out.weight(k));
+        }
+        CsrGraph c = CsrGraph.build(comps.count, sorted, false);
+        emitted = sorted.size();
+        stop();
+        return c;
+    }
+
+    public CsrGraph build(int[] cid, int numComponents, int[] from, int[] to, double[] w, int m) {
+        reset();
+        start();
+        EdgeList out = new EdgeList(Math.min(m, 1 << 16));
+        prepareTable(Math.min(m, 1 << 16));
+        int size = 0;
+        for (int i = 0; i < m; i++) {
+            int a = cid[from[i]], b = cid[to[i]];
+            if (a == b) continue;
+            if (Instrumentation.COUNTERS) interEdges++;
+            long key = ((long) a << 32) | (b & 0xFFFFFFFFL);
+            int slot = (int) mix(key) & mask;
+            while (keys[slot] != EMPTY && keys[slot] != key) slot = (slot + 1) & mask;
+            if (keys[slot] == key) {
+                int k = slotEdge[slot];
+                if (w[i] < out.weight(k)) out.setWeight(k, w[i]);
+                if (Instrumentation.COUNTERS) merged++;
+                continue;
+            }
+            keys[slot] = key;
+            slotEdge[slot] = out.size();
+            out.add(a, b, w[i]);
+            if (++size * 2 > keys.length) rehash();
+        }
+        CsrGraph g = CsrGraph.build(numComponents, out, false);
+        emitted = out.size();
+        stop();
+        return g;
+    }
+
+    // table is reused between builds and only grown
+    private void prepareTable(int expected) {
+        int cap = 16;
+        while (cap < expected * 2) cap <<= 1;
+        if (keys.length < cap) {
+            keys = new long[cap];
+            slotEdge = new int[cap];
+        }
+        Arrays.fill(keys, EMPTY);
+        mask = keys.length - 1;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldEdge = slotEdge;
+        keys = new long[oldKeys.length * 2];
+        slotEdge = new int[keys.length];
+        Arrays.fill(keys, EMPTY);
+        mask = keys.length - 1;
+        for (int s = 0; s < oldKeys.length; s++) {
+            long key = oldKeys[s];
+            if (key == EMPTY) continue;
+            int slot = (int) mix(key) & mask;
+            while (keys[slot] != EMPTY) slot = (slot + 1) & mask;
+            keys[slot] = key;
+            slotEdge[slot] = oldEdge[s];
+        }
+    }
+
+    // murmur3 64-bit finalizer
+    private static long mix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    // Metrics
+    @Override public void start() { startNs = System.nanoTime(); }
+    @Override public void stop() { endNs = System.nanoTime(); }
+    @Override public void reset() { interEdges = merged = emitted = 0; startNs = endNs = 0; }
+    @Override public long getTimeNanos() { return endNs - startNs; }
+    @Override public double getTimeMillis() { return (endNs - startNs) / 1_000_000.0; }
+
+    @Override
+    public String report() {
+        return String.format("Condensation(inter=%d merged=%d edges=%d time=%.3fms)", interEdges, merged, emitted, getTimeMillis());
+    }
+
+    // getters
+    public long getInterEdges() { return interEdges; }
+    public long getMerged() { return merged; }
+    public long getEmitted() { return emitted; }
+    public double getTimeMs() { return getTimeMillis(); }
+}
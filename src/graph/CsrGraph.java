@@ -0,0 +1,126 @@
+package graph;
+
+import java.util.List;
+
+/**
+ * Immutable compressed-sparse-row graph: out-edges of u are
+ * targets/weights[offsets[u] .. offsets[u+1]).
+ * Built by a stable counting sort on the source vertex, so every vertex keeps its
+ * edges in input order (same iteration order as appending to adjacency lists).
+ * The arrays are exposed for hot loops and must not be modified.
+ */
+public final class CsrGraph {
+    public final int n;
+    public final int[] offsets;
+    public final int[] targets;
+    public final double[] weights;
+
+    private CsrGraph(int n, int[] offsets, int[] targets, double[] weights) {
+        this.n = n;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    // wraps already-built CSR arrays (offsets.length == n + 1)
+    public static CsrGraph wrap(int n, int[] offsets, int[] targets, double[] weights) {
+        if (offsets.length != n + 1) throw new IllegalArgumentException("offsets must have n + 1 entries");
+        return new CsrGraph(n, offsets, targets, weights);
+    }
+
+    public static CsrGraph build(int n, int[] from, int[] to, double[] w, int m) {
+        return build(n, from, to, w, m, false);
+    }
+
+    public static CsrGraph build(int n, EdgeList edges, boolean symmetric) {
+        return build(n, edges.fromArray(), edges.toArray(), edges.weightArray(), edges.size(), symmetric);
+    }
+
+    /**
+     * Counting-sort builder. With symmetric=true every edge (u,v) is followed by (v,u),
+     * matching how an undirected edge list is expanded.
+     */
+    public static CsrGraph build(int n, int[] from, int[] to, double[] w, int m, boolean symmetric) {
+        int total = symmetric ? 2 * m : m;
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < m; i++) {
+            offsets[from[i] + 1]++;
+            if (symmetric) offsets[to[i] + 1]++;
+        }
+        for (int u = 0; u < n; u++) offsets[u + 1] += offsets[u];
+
+        int[] targets = new int[total];
+        double[] weights = new double[total];
+        int[] cursor = new int[n];
+        System.arraycopy(offsets, 0, cursor, 0, n);
+        for (int i = 0; i < m; i++) {
+            double wi = w == null ? 1.0 : w[i];
+            int p = cursor[from[i]]++;
+            targets[p] = to[i]; weights[p] = wi;
+            if (symmetric) {
+                p = cursor[to[i]]++;
+                targets[p] = from[i]; weights[p] = wi;
+            }
+        }
+        return new CsrGraph(n, offsets, targets, weights);
+    }
+
+    /**
+     * build(n, edges, true) for the edges behind a directed CSR whose slot e was input edge
+     * inputPos[e] (as loaded from a .csr file): slots are replayed in input order, so every
+     * row matches the edge-list build exactly.
+     */
+    public static CsrGraph symmetric(CsrGraph g, int[] inputPos) {
+        int n = g.n, m = g.edgeCount();
+        int[] off = g.offsets, tgt = g.targets;
+        int[] slot = new int[m], src = new int[m];
+        int[] offsets = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            for (int e = off[u]; e < off[u + 1]; e++) {
+                slot[inputPos[e]] = e;
+                src[e] = u;
+                offsets[tgt[e] + 1]++;
+            }
+            offsets[u + 1] += off[u + 1] - off[u];
+        }
+        for (int u = 0; u < n; u++) offsets[u + 1] += offsets[u];
+
+        int[] targets = new int[2 * m];
+        double[] weights = new double[2 * m];
+        int[] cursor = new int[n];
+        System.arraycopy(offsets, 0, cursor, 0, n);
+        for (int i = 0; i < m; i++) {
+            int e = slot[i], u = src[e], v = tgt[e];
+            int p = cursor[u]++;
+            targets[p] = v; weights[p] = g.weights[e];
+            p = cursor[v]++;
+            targets[p] = u; weights[p] = g.weights[e];
+        }
+        return new CsrGraph(n, offsets, targets, weights);
+    }
+
+    // adapter for the List<List<Edge>> shape
+    public static CsrGraph of(List<List<Edge>> adj) {
+        int n = adj.size();
+        int[] offsets = new int[n + 1];
+        for (int u = 0; u < n; u++) offsets[u + 1] = offsets[u] + adj.get(u).size();
+        int[] targets = new int[offsets[n]];
+        double[] weights = new double[offsets[n]];
+        for (int u = 0; u < n; u++) {
+            int p = offsets[u];
+            for (Edge e : adj.get(u)) { targets[p] = e.to; weights[p] = e.w; p++; }
+        }
+        return new CsrGraph(n, offsets, targets, weights);
+    }
+
+    // reversed graph (in-edges become out-edges), same counting-sort construction
+    public CsrGraph transpose() {
+        int m = edgeCount();
+        int[] from = new int[m];
+        for (int u = 0; u < n; u++) for (int e = offsets[u]; e < offsets[u + 1]; e++) from[e] = u;
+        return build(n, targets, from, weights, m);
+    }
+
+    public int edgeCount() { return offsets[n]; }
+    public int degree(int u) { return offsets[u + 1] - offsets[u]; }
+}
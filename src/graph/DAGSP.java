@@ -7,114 +7,318 @@ import graph.Edge;
  * Shortest and Longest (critical) paths on DAG.
  * Expects a topological order to be provided (to avoid re-running TopoSort which counts separately).
  * Counts relaxations and measures time.
+ * Scratch (in-degrees, search marks and stacks) comes from a Workspace, private by default;
+ * the primitive sweeps also take the caller's distance / prev arrays for reuse.
  */
 public class DAGSP implements Metrics {
 
+    private final Workspace ws;
     private long startNs = 0, endNs = 0;
-    private long relaxations = 0;
+    private long relaxations = 0, pruned = 0;
 
-    public DAGSP() { reset(); }
+    public DAGSP() { this(new Workspace()); }
+
+    public DAGSP(Workspace ws) {
+        this.ws = ws;
+        reset();
+    }
 
     // shortest: takes topo order (List<Integer>) to avoid re-counting topological pushes/pops
     public Map<String,Object> shortest(List<List<Edge>> adj, int src, List<Integer> topoOrder) {
+        return shortest(CsrGraph.of(adj), src, toArray(topoOrder));
+    }
+
+    // Map view kept for callers of the old API; shortestPaths avoids the boxing
+    public Map<String,Object> shortest(CsrGraph g, int src, int[] topoOrder) {
+        return shortestPaths(g, src, topoOrder).toMap();
+    }
+
+    public PathResult shortestPaths(CsrGraph g, int src, int[] topoOrder) {
+        int[] prev = new int[g.n];
+        double[] d = shortestDistances(g, src, topoOrder, prev);
+        return new PathResult(d, prev, shortestTarget(d, topoOrder), false);
+    }
+
+    /**
+     * Primitive shortest-path sweep: returns distances (+inf when unreachable) and fills
+     * prev with the predecessor of each vertex (-1 for none). prev must have g.n slots.
+     */
+    public double[] shortestDistances(CsrGraph g, int src, int[] topoOrder, int[] prev) {
+        return shortestDistances(g, src, topoOrder, prev, new double[g.n]);
+    }
+
+    // same sweep into the caller's d (length >= g.n), which is returned
+    public double[] shortestDistances(CsrGraph g, int src, int[] topoOrder, int[] prev, double[] d) {
         reset();
         start();
-        int n = adj.size();
-        double[] d = new double[n]; Arrays.fill(d, Double.POSITIVE_INFINITY);
-        Integer[] prev = new Integer[n];
+        int n = g.n;
+        int[] off = g.offsets, tgt = g.targets;
+        double[] wt = g.weights;
+        Arrays.fill(d, 0, n, Double.POSITIVE_INFINITY);
+        Arrays.fill(prev, 0, n, -1);
         d[src] = 0;
         for (int u : topoOrder) {
             if (Double.isInfinite(d[u])) continue;
-            for (Edge e : adj.get(u)) {
-                if (d[e.to] > d[u] + e.w) {
-                    d[e.to] = d[u] + e.w;
-                    prev[e.to] = u;
-                    relaxations++;
+            for (int e = off[u], end = off[u + 1]; e < end; e++) {
+                int v = tgt[e];
+                if (d[v] > d[u] + wt[e]) {
+                    d[v] = d[u] + wt[e];
+                    prev[v] = u;
+                    if (Instrumentation.COUNTERS) relaxations++;
                 }
             }
         }
         stop();
+        return d;
+    }
 
-        Map<Integer, Double> reachable = new LinkedHashMap<>();
-        for (int i = 0; i < n; i++)
-            if (!Double.isInfinite(d[i])) reachable.put(i, d[i]);
-
-        List<Integer> path = new ArrayList<>();
-        if (!reachable.isEmpty()) {
-            int t = -1;
-            // choose last reachable by topo order (preserve ordering) — find last element in topoOrder that is reachable
-            for (int k = topoOrder.size()-1; k >= 0; k--) {
-                int node = topoOrder.get(k);
-                if (reachable.containsKey(node)) { t = node; break; }
-            }
-            if (t != -1) {
-                for (Integer cur = t; cur != null; cur = prev[cur]) path.add(cur);
-                Collections.reverse(path);
+    /**
+     * Point-to-point shortest path src -> dst. Only the topo interval [pos[src], pos[dst]] can
+     * hold the path, and dst is final as soon as the sweep reaches it, so nothing outside the
+     * interval is touched. With reverse (g.transpose()) the sweep is narrowed further to the
+     * interval vertices that can reach dst, found by a backward search from dst that stops at
+     * pos[src]; without it, edges leaving the interval are skipped. pos is the inverse of
+     * topoOrder. target() is dst, or -1 when it is unreachable; getPruned() counts the topo
+     * order vertices the sweep never looked at. d and prev are the workspace's, stamped where
+     * written, so a query costs what it touches rather than O(n); the result is valid until
+     * the next shortestPath on the same workspace.
+     */
+    public PathResult shortestPath(CsrGraph g, int src, int dst, int[] topoOrder, int[] pos, CsrGraph reverse) {
+        reset();
+        start();
+        int n = g.n;
+        int[] off = g.offsets, tgt = g.targets;
+        double[] wt = g.weights;
+        // an unstamped vertex is unreached (+inf); stamping replaces the O(n) fills
+        Workspace.Stamps seen = ws.stamps(Workspace.DAGSP_SEEN, n);
+        double[] d = ws.doubles(Workspace.DAGSP_DIST, n);
+        int[] prev = ws.ints(Workspace.DAGSP_PREV, n);
+        int lo = pos[src], hi = pos[dst];
+        seen.mark(src);
+        d[src] = 0;
+        prev[src] = -1;
+        int swept = 0;
+        if (lo < hi) {
+            if (reverse == null) {
+                for (int p = lo; p < hi; p++) {
+                    int u = topoOrder[p];
+                    swept++;
+                    if (!seen.isMarked(u)) continue;
+                    for (int e = off[u], end = off[u + 1]; e < end; e++) {
+                        int v = tgt[e];
+                        if (pos[v] > hi) continue;
+                        if (!seen.isMarked(v) || d[v] > d[u] + wt[e]) {
+                            seen.mark(v);
+                            d[v] = d[u] + wt[e];
+                            prev[v] = u;
+                            if (Instrumentation.COUNTERS) relaxations++;
+                        }
+                    }
+                }
+            } else {
+                // backward search from dst; mark holds the vertices that can reach it (cleared by epoch, not by a fill)
+                Workspace.Stamps mark = ws.stamps(Workspace.DAGSP_MARK, n);
+                int[] stack = ws.ints(Workspace.DAGSP_STACK, hi - lo + 1), cone = ws.ints(Workspace.DAGSP_CONE, hi - lo + 1);
+                int sp = 0, size = 0;
+                mark.mark(dst);
+                stack[sp++] = dst;
+                int[] roff = reverse.offsets, rtgt = reverse.targets;
+                while (sp > 0) {
+                    int x = stack[--sp];
+                    for (int e = roff[x], end = roff[x + 1]; e < end; e++) {
+                        int w = rtgt[e];
+                        if (mark.isMarked(w) || pos[w] < lo) continue;
+                        mark.mark(w);
+                        stack[sp++] = w;
+                        cone[size++] = pos[w];
+                    }
+                }
+                if (mark.isMarked(src)) {
+                    Arrays.sort(cone, 0, size);
+                    for (int k = 0; k < size; k++) {
+                        int u = topoOrder[cone[k]];
+                        swept++;
+                        if (!seen.isMarked(u)) continue;
+                        for (int e = off[u], end = off[u + 1]; e < end; e++) {
+                            int v = tgt[e];
+                            if (!mark.isMarked(v)) continue;
+                            if (!seen.isMarked(v) || d[v] > d[u] + wt[e]) {
+                                seen.mark(v);
+                                d[v] = d[u] + wt[e];
+                                prev[v] = u;
+                                if (Instrumentation.COUNTERS) relaxations++;
+                            }
+                        }
+                    }
+                }
             }
         }
+        pruned = topoOrder.length - swept;
+        stop();
+        return new PathResult(d, prev, n, seen.isMarked(dst) ? dst : -1, false, seen);
+    }
 
-        Map<String,Object> r = new LinkedHashMap<>();
-        r.put("distances", reachable);
-        r.put("path", path);
-        return r;
+    // the reported shortest path ends at the last reachable vertex in topo order (-1 if none)
+    public static int shortestTarget(double[] d, int[] topoOrder) {
+        for (int k = topoOrder.length-1; k >= 0; k--) {
+            int node = topoOrder[k];
+            if (!Double.isInfinite(d[node])) return node;
+        }
+        return -1;
     }
 
     // longest (critical) path: uses topoOrder as well
     public Map<String,Object> longest(List<List<Edge>> adj, List<Integer> topoOrder) {
+        return longest(CsrGraph.of(adj), toArray(topoOrder));
+    }
+
+    public Map<String,Object> longest(CsrGraph g, int[] topoOrder) {
+        return longestPaths(g, topoOrder).toMap();
+    }
+
+    public PathResult longestPaths(CsrGraph g, int[] topoOrder) {
+        int[] prev = new int[g.n];
+        double[] d = longestDistances(g, topoOrder, prev);
+        return new PathResult(d, prev, longestEnd(d), true);
+    }
+
+    /**
+     * Primitive longest-path sweep from all sources (indegree 0): returns distances
+     * (-inf when unreached) and fills prev (-1 for none). prev must have g.n slots.
+     */
+    public double[] longestDistances(CsrGraph g, int[] topoOrder, int[] prev) {
+        return longestDistances(g, topoOrder, prev, new double[g.n]);
+    }
+
+    public double[] longestDistances(CsrGraph g, int[] topoOrder, int[] prev, double[] d) {
         reset();
         start();
-        int n = adj.size();
-        double[] d = new double[n]; Arrays.fill(d, Double.NEGATIVE_INFINITY);
-        Integer[] prev = new Integer[n];
-        int[] indeg = new int[n];
-        for (int u = 0; u < n; u++) for (Edge e : adj.get(u)) indeg[e.to]++;
+        int n = g.n;
+        int[] off = g.offsets, tgt = g.targets;
+        double[] wt = g.weights;
+        Arrays.fill(d, 0, n, Double.NEGATIVE_INFINITY);
+        Arrays.fill(prev, 0, n, -1);
+        int[] indeg = ws.ints(Workspace.DAGSP_INDEG, n);
+        Arrays.fill(indeg, 0, n, 0);
+        for (int e = 0, m = g.edgeCount(); e < m; e++) indeg[tgt[e]]++;
         for (int i = 0; i < n; i++) if (indeg[i] == 0) d[i] = 0;
 
         for (int u : topoOrder) {
             if (d[u] == Double.NEGATIVE_INFINITY) continue;
-            for (Edge e : adj.get(u)) {
-                if (d[e.to] < d[u] + e.w) {
-                    d[e.to] = d[u] + e.w;
-                    prev[e.to] = u;
-                    relaxations++;
+            for (int e = off[u], end = off[u + 1]; e < end; e++) {
+                int v = tgt[e];
+                if (d[v] < d[u] + wt[e]) {
+                    d[v] = d[u] + wt[e];
+                    prev[v] = u;
+                    if (Instrumentation.COUNTERS) relaxations++;
                 }
             }
         }
         stop();
+        return d;
+    }
 
-        Map<Integer, Double> reachable = new LinkedHashMap<>();
-        for (int i = 0; i < n; i++) if (d[i] != Double.NEGATIVE_INFINITY) reachable.put(i, d[i]);
+    // off-heap shortest sweep: distances in the arena, prev (length >= n) filled as in shortestDistances
+    public OffHeapArena.Doubles shortestDistances(OffHeapGraph g, int src, OffHeapArena.Ints topoOrder,
+                                                  OffHeapArena.Ints prev, OffHeapArena arena) {
+        reset();
+        start();
+        OffHeapArena.Ints off = g.offsets, tgt = g.targets;
+        OffHeapArena.Doubles wt = g.weights;
+        OffHeapArena.Doubles d = arena.doubles(g.n);
+        d.fill(Double.POSITIVE_INFINITY);
+        prev.fill(-1);
+        d.set(src, 0);
+        for (int k = 0, len = topoOrder.length(); k < len; k++) {
+            int u = topoOrder.get(k);
+            double du = d.get(u);
+            if (Double.isInfinite(du)) continue;
+            for (int e = off.get(u), end = off.get(u + 1); e < end; e++) {
+                int v = tgt.get(e);
+                double nd = du + wt.get(e);
+                if (d.get(v) > nd) {
+                    d.set(v, nd);
+                    prev.set(v, u);
+                    if (Instrumentation.COUNTERS) relaxations++;
+                }
+            }
+        }
+        stop();
+        return d;
+    }
 
+    // off-heap longest sweep from all sources; a has-predecessor flag per vertex in the arena
+    public OffHeapArena.Doubles longestDistances(OffHeapGraph g, OffHeapArena.Ints topoOrder,
+                                                 OffHeapArena.Ints prev, OffHeapArena arena) {
+        reset();
+        start();
+        int n = g.n;
+        OffHeapArena.Ints off = g.offsets, tgt = g.targets;
+        OffHeapArena.Doubles wt = g.weights;
+        OffHeapArena.Doubles d = arena.doubles(n);
+        OffHeapArena.Ints hasPred = arena.ints(n);
+        d.fill(Double.NEGATIVE_INFINITY);
+        prev.fill(-1);
+        hasPred.fill(0);
+        for (int e = 0; e < g.m; e++) hasPred.set(tgt.get(e), 1);
+        for (int i = 0; i < n; i++) if (hasPred.get(i) == 0) d.set(i, 0);
+
+        for (int k = 0, len = topoOrder.length(); k < len; k++) {
+            int u = topoOrder.get(k);
+            double du = d.get(u);
+            if (du == Double.NEGATIVE_INFINITY) continue;
+            for (int e = off.get(u), end = off.get(u + 1); e < end; e++) {
+                int v = tgt.get(e);
+                double nd = du + wt.get(e);
+                if (d.get(v) < nd) {
+                    d.set(v, nd);
+                    prev.set(v, u);
+                    if (Instrumentation.COUNTERS) relaxations++;
+                }
+            }
+        }
+        stop();
+        return d;
+    }
+
+    // end of the critical path: first vertex with the maximum distance (-1 if none)
+    public static int longestEnd(double[] d) {
         double max = Double.NEGATIVE_INFINITY;
         int end = -1;
-        for (int i = 0; i < n; i++) if (d[i] > max) { max = d[i]; end = i; }
+        for (int i = 0; i < d.length; i++) if (d[i] > max) { max = d[i]; end = i; }
+        return end;
+    }
 
-        List<Integer> path = new ArrayList<>();
-        if (end != -1 && max != Double.NEGATIVE_INFINITY) {
-            for (Integer cur = end; cur != null; cur = prev[cur]) path.add(cur);
-            Collections.reverse(path);
-        }
+    // walks prev back from t; empty when t is -1
+    public static int[] pathTo(int[] prev, int t) {
+        if (t == -1) return new int[0];
+        int len = 0;
+        for (int cur = t; cur != -1; cur = prev[cur]) len++;
+        int[] path = new int[len];
+        for (int cur = t; cur != -1; cur = prev[cur]) path[--len] = cur;
+        return path;
+    }
 
-        Map<String,Object> r = new LinkedHashMap<>();
-        r.put("distances", reachable);
-        r.put("length", max == Double.NEGATIVE_INFINITY ? null : max);
-        r.put("path", path);
-        return r;
+    private static int[] toArray(List<Integer> order) {
+        int[] a = new int[order.size()];
+        for (int i = 0; i < a.length; i++) a[i] = order.get(i);
+        return a;
     }
 
     // Metrics interface
     @Override public void start() { startNs = System.nanoTime(); }
     @Override public void stop() { endNs = System.nanoTime(); }
-    @Override public void reset() { relaxations = 0; startNs = endNs = 0; }
+    @Override public void reset() { relaxations = pruned = 0; startNs = endNs = 0; }
     @Override public long getTimeNanos() { return endNs - startNs; }
     @Override public double getTimeMillis() { return (endNs - startNs) / 1_000_000.0; }
 
     @Override
     public String report() {
-        return String.format("DAGSP(relax=%d time=%.3fms)", relaxations, getTimeMillis());
+        return String.format("DAGSP(relax=%d pruned=%d time=%.3fms)", relaxations, pruned, getTimeMillis());
     }
 
     // getters
     public long getRelaxations() { return relaxations; }
+    public long getPruned() { return pruned; }
     public double getTimeMs() { return getTimeMillis(); }
 }
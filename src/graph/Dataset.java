@@ -0,0 +1,58 @@
+package graph;
+
+/**
+ * Parsed dataset: {n, directed, edges:[{u,v,w}], source, weight_model}.
+ * n already covers every endpoint seen in edges. edges keep the input order;
+ * graph() is the directed CSR of those edges. A dataset loaded from binary has no
+ * edge list: graph() is the file's CSR and inputPos() maps each slot to its input position.
+ */
+public class Dataset {
+    public final int n;
+    public final boolean directed;
+    public final int source;
+    public final String weightModel;
+    public final EdgeList edges;   // null when loaded from binary
+    private CsrGraph graph;
+    private final int[] inputPos;
+
+    public Dataset(int n, boolean directed, int source, String weightModel, EdgeList edges) {
+        this(n, directed, source, weightModel, edges, null);
+    }
+
+    public Dataset(int n, boolean directed, int source, String weightModel, EdgeList edges, CsrGraph graph) {
+        this.n = n;
+        this.directed = directed;
+        this.source = source;
+        this.weightModel = weightModel;
+        this.edges = edges;
+        this.graph = graph;
+        this.inputPos = null;
+    }
+
+    // binary form: the directed CSR of the input edges and the input position of each slot
+    public Dataset(int n, boolean directed, int source, String weightModel, CsrGraph graph, int[] inputPos) {
+        this.n = n;
+        this.directed = directed;
+        this.source = source;
+        this.weightModel = weightModel;
+        this.edges = null;
+        this.graph = graph;
+        this.inputPos = inputPos;
+    }
+
+    public CsrGraph graph() {
+        if (graph == null) graph = CsrGraph.build(n, edges, false);
+        return graph;
+    }
+
+    // the graph SCC runs on: graph() when directed, both directions of every edge otherwise
+    public CsrGraph sccGraph() {
+        if (directed) return graph();
+        return edges != null ? CsrGraph.build(n, edges, true) : CsrGraph.symmetric(graph, inputPos);
+    }
+
+    public int edgeCount() { return edges != null ? edges.size() : graph.edgeCount(); }
+
+    // null unless loaded from binary
+    public int[] inputPos() { return inputPos; }
+}
@@ -0,0 +1,344 @@
+package graph;
+
+import java.io.*;
+import java.nio.file.*;
+
+/**
+ * Streaming single-pass JSON reader for the dataset schema.
+ * Reads raw bytes through a fixed buffer and fills primitive edge buffers directly,
+ * no intermediate String for the document or the numbers (except rare long decimals).
+ * Measures parse time and bytes allocated by the parsing thread.
+ */
+public class DatasetParser implements DatasetReader {
+
+    private static final int K_OTHER = 0, K_N = 1, K_DIRECTED = 2, K_EDGES = 3, K_SOURCE = 4,
+            K_WEIGHT_MODEL = 5, K_U = 6, K_V = 7, K_W = 8;
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    private final byte[] buf = new byte[1 << 16];
+    private final byte[] tok = new byte[64];
+    private int tokLen;
+    private InputStream in;
+    private int pos, lim;
+    private long offset;
+    // largest endpoint seen and the index of the first edge that has it
+    private int maxId;
+
+    // metrics
+    private long startNs = 0, endNs = 0;
+    private long bytesRead = 0, allocatedBytes = 0;
+
+    public DatasetParser() { reset(); }
+
+    @Override
+    public Dataset read(Path file) throws IOException { return parse(file); }
+
+    public Dataset parse(Path file) throws IOException {
+        reset();
+        long alloc0 = Metrics.threadAllocatedBytes();
+        start();
+        Dataset ds;
+        try (InputStream is = Files.newInputStream(file)) {
+            ds = parse(is, (int) Math.min(Integer.MAX_VALUE - 8, Files.size(file) / 24 + 16));
+        }
+        stop();
+        allocatedBytes = Metrics.threadAllocatedBytes() - alloc0;
+        return ds;
+    }
+
+    /**
+     * Streaming variant: every edge goes to sink in input order instead of an EdgeList.
+     * The returned Dataset carries n, directed, source and weight_model with an empty edge list.
+     */
+    public Dataset parse(Path file, EdgeSink sink) throws IOException {
+        reset();
+        long alloc0 = Metrics.threadAllocatedBytes();
+        start();
+        Dataset ds;
+        try (InputStream is = Files.newInputStream(file)) {
+            ds = parse(is, sink, new EdgeList(1));
+        }
+        stop();
+        allocatedBytes = Metrics.threadAllocatedBytes() - alloc0;
+        return ds;
+    }
+
+    private Dataset parse(InputStream is, int edgeHint) throws IOException {
+        EdgeList edges = new EdgeList(edgeHint);
+        return parse(is, edges, edges);
+    }
+
+    private Dataset parse(InputStream is, EdgeSink sink, EdgeList edges) throws IOException {
+        in = is; pos = lim = 0; offset = 0;
+        int n = -1, source = 0;
+        boolean directed = false;
+        String weightModel = null;
+        maxId = -1;
+
+        expect('{');
+        if (peekToken() != '}') {
+            do {
+                int key = readKey();
+                switch (key) {
+                    case K_N: n = readCount(); break;
+                    case K_SOURCE: source = (int) readLong(); break;
+                    case K_DIRECTED: directed = readBoolean(); break;
+                    case K_WEIGHT_MODEL: weightModel = readStringOrNull(); break;
+                    case K_EDGES: readEdges(sink); break;
+                    default: skipValue();
+                }
+            } while (nextSeparator('}'));
+        } else next();
+
+        in = null;
+        bytesRead = offset + pos;
+        // an endpoint >= n grows the graph to maxId + 1
+        return new Dataset(Math.max(n, maxId + 1), directed, source, weightModel, edges);
+    }
+
+    // edges: [ {"u":..,"v":..,"w":..}, ... ]
+    private void readEdges(EdgeSink edges) throws IOException {
+        expect('[');
+        if (peekToken() == ']') { next(); return; }
+        int index = 0;
+        do {
+            long u = -1, v = -1;
+            double w = 1.0;
+            expect('{');
+            if (peekToken() != '}') {
+                do {
+                    switch (readKey()) {
+                        case K_U: u = readVertex(index, "u"); break;
+                        case K_V: v = readVertex(index, "v"); break;
+                        case K_W: w = readDouble(); break;
+                        default: skipValue();
+                    }
+                } while (nextSeparator('}'));
+            } else next();
+            if (u < 0) throw error("edge " + index + ": missing \"u\"");
+            if (v < 0) throw error("edge " + index + ": missing \"v\"");
+            edges.add((int) u, (int) v, w);
+            maxId = (int) Math.max(maxId, Math.max(u, v));
+            index++;
+        } while (nextSeparator(']'));
+    }
+
+    private int readCount() throws IOException {
+        long n = readLong();
+        if (n < 0 || n > Integer.MAX_VALUE) throw error("\"n\" = " + n + " is not a vertex count");
+        return (int) n;
+    }
+
+    private long readVertex(int index, String key) throws IOException {
+        long id = readLong();
+        if (id < 0 || id >= Integer.MAX_VALUE)
+            throw error("edge " + index + ": \"" + key + "\" = " + id + " is not a vertex id");
+        return id;
+    }
+
+    // ---- tokens ----
+
+    private int readKey() throws IOException {
+        expect('"');
+        tokLen = 0;
+        int c;
+        while ((c = next()) != '"') {
+            if (c < 0) throw error("unterminated key");
+            if (c == '\\') { next(); c = '?'; }
+            if (tokLen < tok.length) tok[tokLen] = (byte) c;
+            tokLen++;
+        }
+        expect(':');
+        if (tokLen > tok.length) return K_OTHER;
+        if (tokIs("n")) return K_N;
+        if (tokIs("u")) return K_U;
+        if (tokIs("v")) return K_V;
+        if (tokIs("w")) return K_W;
+        if (tokIs("edges")) return K_EDGES;
+        if (tokIs("source")) return K_SOURCE;
+        if (tokIs("directed")) return K_DIRECTED;
+        if (tokIs("weight_model")) return K_WEIGHT_MODEL;
+        return K_OTHER;
+    }
+
+    private boolean tokIs(String s) {
+        if (s.length() != tokLen) return false;
+        for (int i = 0; i < tokLen; i++) if (tok[i] != s.charAt(i)) return false;
+        return true;
+    }
+
+    private long readLong() throws IOException {
+        int c = peekToken();
+        boolean neg = false;
+        if (c == '-') { neg = true; next(); c = peek(); }
+        if (c < '0' || c > '9') throw error("number expected");
+        long r = 0;
+        while ((c = peek()) >= '0' && c <= '9') { r = r * 10 + (c - '0'); next(); }
+        // tolerate "3.0" style integers
+        if (c == '.' || c == 'e' || c == 'E') { skipNumberTail(); }
+        return neg ? -r : r;
+    }
+
+    private double readDouble() throws IOException {
+        int c = peekToken();
+        tokLen = 0;
+        while (c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E' || (c >= '0' && c <= '9')) {
+            if (tokLen == tok.length) throw error("number too long");
+            tok[tokLen++] = (byte) c;
+            next();
+            c = peek();
+        }
+        if (tokLen == 0) throw error("number expected");
+
+        // fast path: up to 15 significant digits with a small decimal exponent is exact
+        int i = 0;
+        boolean neg = tok[0] == '-';
+        if (neg || tok[0] == '+') i++;
+        long mant = 0;
+        int digits = 0, scale = 0;
+        boolean dot = false, simple = true;
+        for (; i < tokLen; i++) {
+            byte b = tok[i];
+            if (b >= '0' && b <= '9') {
+                if (digits > 0 || b != '0') digits++;
+                mant = mant * 10 + (b - '0');
+                if (dot) scale++;
+            } else if (b == '.' && !dot) dot = true;
+            else { simple = false; break; }
+        }
+        if (simple && digits <= 15 && scale < POW10.length) {
+            double d = scale == 0 ? mant : mant / POW10[scale];
+            return neg ? -d : d;
+        }
+        char[] chars = new char[tokLen];
+        for (int k = 0; k < tokLen; k++) chars[k] = (char) tok[k];
+        try {
+            return Double.parseDouble(new String(chars));
+        } catch (NumberFormatException e) {
+            throw error("bad number");
+        }
+    }
+
+    private void skipNumberTail() throws IOException {
+        int c;
+        while ((c = peek()) == '.' || c == 'e' || c == 'E' || c == '+' || c == '-' || (c >= '0' && c <= '9')) next();
+    }
+
+    private boolean readBoolean() throws IOException {
+        int c = peekToken();
+        if (c == 't') { literal("true"); return true; }
+        if (c == 'f') { literal("false"); return false; }
+        skipValue();
+        return false;
+    }
+
+    private String readStringOrNull() throws IOException {
+        if (peekToken() != '"') { skipValue(); return null; }
+        next();
+        ByteArrayOutputStream s = new ByteArrayOutputStream();
+        int c;
+        while ((c = next()) != '"') {
+            if (c < 0) throw error("unterminated string");
+            if (c == '\\') c = next();
+            s.write(c);
+        }
+        return s.toString(java.nio.charset.StandardCharsets.UTF_8);
+    }
+
+    private void skipValue() throws IOException {
+        int c = peekToken();
+        switch (c) {
+            case '{':
+                next();
+                if (peekToken() == '}') { next(); return; }
+                do { readKey(); skipValue(); } while (nextSeparator('}'));
+                return;
+            case '[':
+                next();
+                if (peekToken() == ']') { next(); return; }
+                do { skipValue(); } while (nextSeparator(']'));
+                return;
+            case '"':
+                next();
+                while ((c = next()) != '"') {
+                    if (c < 0) throw error("unterminated string");
+                    if (c == '\\') next();
+                }
+                return;
+            case 't': literal("true"); return;
+            case 'f': literal("false"); return;
+            case 'n': literal("null"); return;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) { skipNumberTail(); return; }
+                throw error("unexpected character");
+        }
+    }
+
+    private void literal(String s) throws IOException {
+        for (int i = 0; i < s.length(); i++) if (next() != s.charAt(i)) throw error("bad literal");
+    }
+
+    // after a member/element: true on ',', false on the closing bracket
+    private boolean nextSeparator(char close) throws IOException {
+        int c = peekToken();
+        next();
+        if (c == ',') return true;
+        if (c == close) return false;
+        throw error("expected ',' or '" + close + "'");
+    }
+
+    private void expect(char ch) throws IOException {
+        if (peekToken() != ch) throw error("expected '" + ch + "'");
+        next();
+    }
+
+    // ---- byte buffer ----
+
+    private int peekToken() throws IOException {
+        int c;
+        while ((c = peek()) == ' ' || c == '\n' || c == '\r' || c == '\t') pos++;
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (pos == lim && !fill()) return -1;
+        return buf[pos] & 0xFF;
+    }
+
+    private int next() throws IOException {
+        if (pos == lim && !fill()) return -1;
+        return buf[pos++] & 0xFF;
+    }
+
+    private boolean fill() throws IOException {
+        offset += lim;
+        pos = lim = 0;
+        int r = in.read(buf, 0, buf.length);
+        if (r <= 0) return false;
+        lim = r;
+        return true;
+    }
+
+    private IOException error(String msg) {
+        return new IOException("Malformed dataset JSON at byte " + (offset + pos) + ": " + msg);
+    }
+
+    // Metrics
+    @Override public void start() { startNs = System.nanoTime(); }
+    @Override public void stop() { endNs = System.nanoTime(); }
+    @Override public void reset() { bytesRead = allocatedBytes = 0; startNs = endNs = 0; }
+    @Override public long getTimeNanos() { return endNs - startNs; }
+    @Override public double getTimeMillis() { return (endNs - startNs) / 1_000_000.0; }
+
+    @Override
+    public String report() {
+        return String.format("Parse(bytes=%d alloc=%d time=%.3fms)", bytesRead, allocatedBytes, getTimeMillis());
+    }
+
+    // getters
+    public long getBytesRead() { return bytesRead; }
+    @Override public long getAllocatedBytes() { return allocatedBytes; }
+    @Override public double getTimeMs() { return getTimeMillis(); }
+}
@@ -0,0 +1,26 @@
+package graph;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Loads a Dataset from disk; implemented by the JSON parser and the binary CSR loader.
+ * Time and allocated bytes of the last read are reported through Metrics.
+ */
+public interface DatasetReader extends Metrics {
+
+    Dataset read(Path file) throws IOException;
+
+    long getAllocatedBytes();
+    double getTimeMs();
+
+    static boolean isDataset(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(".json") || name.endsWith(BinaryGraph.EXTENSION);
+    }
+
+    // picks the reader by file extension
+    static DatasetReader forFile(Path file) {
+        return file.getFileName().toString().endsWith(BinaryGraph.EXTENSION) ? new BinaryGraph() : new DatasetParser();
+    }
+}
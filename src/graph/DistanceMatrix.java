@@ -0,0 +1,54 @@
+package graph;
+
+/**
+ * Distances from many sources, stored as the vertex-major lane blocks MultiSourceSP
+ * computes in: block b holds sources [b*lanes, b*lanes + width) and entry
+ * (v, lane) lives at v*width + lane. Unreachable vertices are +infinity.
+ */
+public final class DistanceMatrix {
+    static final int MAX_CELLS = Integer.MAX_VALUE - 8;   // largest double[] the JVM allocates
+
+    private final int n, lanes;
+    private final int[] sources;
+    private final double[][] blocks;
+    private final long[] relaxations;
+
+    DistanceMatrix(int n, int lanes, int[] sources, double[][] blocks, long[] relaxations) {
+        this.n = n;
+        this.lanes = lanes;
+        this.sources = sources;
+        this.blocks = blocks;
+        this.relaxations = relaxations;
+    }
+
+    // n * width entries of one block, counted in long; every index v*width + lane is below it
+    static int cells(int n, int width) {
+        long cells = (long) n * width;
+        if (cells > MAX_CELLS)
+            throw new IllegalArgumentException(n + " vertices x " + width + " lanes = " + cells
+                    + " distances per block, over the array limit of " + MAX_CELLS + "; use fewer lanes");
+        return (int) cells;
+    }
+
+    public int vertexCount() { return n; }
+    public int sourceCount() { return sources.length; }
+    public int source(int i) { return sources[i]; }
+
+    // distance from the i-th source to v
+    public double get(int i, int v) {
+        double[] b = blocks[i / lanes];
+        int width = b.length / Math.max(n, 1);
+        return b[(int) ((long) v * width + i % lanes)];
+    }
+
+    // copies one source's distances into dst (length >= n)
+    public double[] row(int i, double[] dst) {
+        double[] b = blocks[i / lanes];
+        int width = b.length / Math.max(n, 1), lane = i % lanes;
+        for (int v = 0; v < n; v++) dst[v] = b[(int) ((long) v * width + lane)];
+        return dst;
+    }
+
+    // relaxations performed for the i-th source (same count DAGSP.shortest reports)
+    public long getRelaxations(int i) { return relaxations[i]; }
+}
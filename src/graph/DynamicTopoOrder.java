@@ -0,0 +1,177 @@
+package graph;
+
+import java.util.*;
+
+/**
+ * Topological order maintained under edge insertions and deletions (Pearce-Kelly).
+ * Inserting u -> v with ord[u] < ord[v] costs O(1). Otherwise only the affected
+ * region ord[v]..ord[u] is searched: forward from v and backward from u. The two
+ * visited sets are then re-slotted into the positions they already occupied, with
+ * the backward set first. Reaching u from v means the edge would close a cycle;
+ * it is rejected and the order is unchanged. Deleting an edge never invalidates
+ * an order, so deletions only update adjacency.
+ * Counts the vertices touched per update, so the cost can be compared with a full TopoSort.
+ */
+public class DynamicTopoOrder implements Metrics {
+
+    private final int n;
+    private final int[] ord, at;              // vertex -> position, position -> vertex
+    private final int[][] out, in;
+    private final int[] outDeg, inDeg;
+    // DFS scratch; mark[v] == epoch means visited in the current update
+    private final int[] mark, stack;
+    private int epoch = 0;
+    private int[] fwd = new int[16], bwd = new int[16];
+    private int fwdSize, bwdSize;
+
+    // metrics
+    private long startNs = 0, endNs = 0;
+    private long updates = 0, reorders = 0, cyclesRejected = 0, lastTouched = 0, totalTouched = 0;
+
+    public DynamicTopoOrder(int n) {
+        this.n = n;
+        ord = new int[n];
+        at = new int[n];
+        for (int i = 0; i < n; i++) ord[i] = at[i] = i;
+        out = new int[n][];
+        in = new int[n][];
+        outDeg = new int[n];
+        inDeg = new int[n];
+        mark = new int[n];
+        stack = new int[n];
+    }
+
+    // starts from an existing DAG, ordered by TopoSort
+    public DynamicTopoOrder(CsrGraph dag) {
+        this(dag.n);
+        int[] order = new TopoSort().sort(dag);
+        if (order.length != n) throw new IllegalArgumentException("graph has a cycle");
+        for (int i = 0; i < n; i++) { at[i] = order[i]; ord[order[i]] = i; }
+        for (int u = 0; u < n; u++)
+            for (int e = dag.offsets[u]; e < dag.offsets[u + 1]; e++) link(u, dag.targets[e]);
+    }
+
+    /** Inserts u -> v; returns false (and leaves the graph unchanged) if it would close a cycle. */
+    public boolean addEdge(int u, int v) {
+        start();
+        updates++;
+        lastTouched = 0;
+        boolean ok = true;
+        if (u == v) ok = false;
+        else if (ord[u] > ord[v]) ok = reorder(u, v);
+        if (ok) link(u, v); else cyclesRejected++;
+        totalTouched += lastTouched;
+        stop();
+        return ok;
+    }
+
+    /** Removes one u -> v edge; returns false if there was none. */
+    public boolean removeEdge(int u, int v) {
+        start();
+        updates++;
+        lastTouched = 0;
+        boolean removed = unlink(out, outDeg, u, v);
+        if (removed) unlink(in, inDeg, v, u);
+        stop();
+        return removed;
+    }
+
+    private boolean reorder(int u, int v) {
+        int lb = ord[v], ub = ord[u];
+        epoch++;
+        fwdSize = bwdSize = 0;
+        // forward from v inside [lb, ub]; hitting u closes a cycle
+        int sp = 0;
+        stack[sp++] = v; mark[v] = epoch;
+        while (sp > 0) {
+            int x = stack[--sp];
+            fwd = push(fwd, fwdSize++, x);
+            for (int i = 0; i < outDeg[x]; i++) {
+                int y = out[x][i];
+                if (y == u) { lastTouched = fwdSize; return false; }
+                if (mark[y] != epoch && ord[y] < ub) { mark[y] = epoch; stack[sp++] = y; }
+            }
+        }
+        // backward from u inside [lb, ub]
+        stack[sp++] = u; mark[u] = epoch;
+        while (sp > 0) {
+            int x = stack[--sp];
+            bwd = push(bwd, bwdSize++, x);
+            for (int i = 0; i < inDeg[x]; i++) {
+                int y = in[x][i];
+                if (mark[y] != epoch && ord[y] > lb) { mark[y] = epoch; stack[sp++] = y; }
+            }
+        }
+        lastTouched = fwdSize + bwdSize;
+        reorders++;
+
+        // the backward set (ending at u) must precede the forward set (starting at v);
+        // both keep their relative order and reuse the positions they held
+        sortByOrd(bwd, bwdSize);
+        sortByOrd(fwd, fwdSize);
+        int total = bwdSize + fwdSize;
+        int[] slots = new int[total];
+        for (int i = 0; i < bwdSize; i++) slots[i] = ord[bwd[i]];
+        for (int i = 0; i < fwdSize; i++) slots[bwdSize + i] = ord[fwd[i]];
+        Arrays.sort(slots);
+        for (int i = 0; i < total; i++) {
+            int x = i < bwdSize ? bwd[i] : fwd[i - bwdSize];
+            ord[x] = slots[i];
+            at[slots[i]] = x;
+        }
+        return true;
+    }
+
+    private void sortByOrd(int[] a, int size) {
+        long[] keyed = new long[size];
+        for (int i = 0; i < size; i++) keyed[i] = ((long) ord[a[i]] << 32) | a[i];
+        Arrays.sort(keyed);
+        for (int i = 0; i < size; i++) a[i] = (int) keyed[i];
+    }
+
+    private static int[] push(int[] a, int size, int x) {
+        if (size == a.length) a = Arrays.copyOf(a, size * 2);
+        a[size] = x;
+        return a;
+    }
+
+    private void link(int u, int v) {
+        out[u] = push(out[u] == null ? new int[2] : out[u], outDeg[u]++, v);
+        in[v] = push(in[v] == null ? new int[2] : in[v], inDeg[v]++, u);
+    }
+
+    private static boolean unlink(int[][] adj, int[] deg, int u, int v) {
+        int[] a = adj[u];
+        for (int i = 0; i < deg[u]; i++) {
+            if (a[i] == v) { a[i] = a[--deg[u]]; return true; }
+        }
+        return false;
+    }
+
+    public int size() { return n; }
+    public int position(int v) { return ord[v]; }
+    public int vertexAt(int position) { return at[position]; }
+    public boolean precedes(int u, int v) { return ord[u] < ord[v]; }
+    public int[] order() { return at.clone(); }
+
+    // Metrics
+    @Override public void start() { startNs = System.nanoTime(); }
+    @Override public void stop() { endNs = System.nanoTime(); }
+    @Override public void reset() { updates = reorders = cyclesRejected = lastTouched = totalTouched = 0; startNs = endNs = 0; }
+    @Override public long getTimeNanos() { return endNs - startNs; }
+    @Override public double getTimeMillis() { return (endNs - startNs) / 1_000_000.0; }
+
+    @Override
+    public String report() {
+        return String.format("DynTopo(updates=%d reorders=%d cycles=%d touched=%d last=%d time=%.3fms)",
+                updates, reorders, cyclesRejected, totalTouched, lastTouched, getTimeMillis());
+    }
+
+    // getters
+    public long getUpdates() { return updates; }
+    public long getReorders() { return reorders; }
+    public long getCyclesRejected() { return cyclesRejected; }
+    public long getLastTouched() { return lastTouched; }
+    public long getTotalTouched() { return totalTouched; }
+    public double getTimeMs() { return getTimeMillis(); }
+}
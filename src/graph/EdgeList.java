@@ -0,0 +1,57 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * Growable primitive edge buffers (u, v, w) - no per-edge objects.
+ * Arrays may be longer than size(); only the first size() slots are valid.
+ */
+public class EdgeList implements EdgeSink {
+    private int[] u, v;
+    private double[] w;
+    private int size = 0;
+
+    public EdgeList() { this(16); }
+
+    public EdgeList(int capacity) {
+        capacity = Math.max(capacity, 1);
+        u = new int[capacity];
+        v = new int[capacity];
+        w = new double[capacity];
+    }
+
+    // adopts existing arrays (all at least size long) without copying
+    public static EdgeList wrap(int[] from, int[] to, double[] weight, int size) {
+        EdgeList l = new EdgeList(1);
+        l.u = from; l.v = to; l.w = weight;
+        l.size = size;
+        return l;
+    }
+
+    @Override
+    public void add(int from, int to, double weight) {
+        if (size == u.length) grow();
+        u[size] = from; v[size] = to; w[size] = weight;
+        size++;
+    }
+
+    private void grow() {
+        int cap = u.length + (u.length >> 1) + 1;
+        u = Arrays.copyOf(u, cap);
+        v = Arrays.copyOf(v, cap);
+        w = Arrays.copyOf(w, cap);
+    }
+
+    public void clear() { size = 0; }
+
+    public int size() { return size; }
+    public int from(int i) { return u[i]; }
+    public int to(int i) { return v[i]; }
+    public double weight(int i) { return w[i]; }
+    public void setWeight(int i, double weight) { w[i] = weight; }
+
+    // raw backing arrays for hot loops (valid up to size())
+    public int[] fromArray() { return u; }
+    public int[] toArray() { return v; }
+    public double[] weightArray() { return w; }
+}
@@ -0,0 +1,8 @@
+package graph;
+
+import java.io.IOException;
+
+/** Receives parsed edges in input order (EdgeList collects them, ExternalPipeline spools them to disk). */
+public interface EdgeSink {
+    void add(int u, int v, double w) throws IOException;
+}
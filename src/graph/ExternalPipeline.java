@@ -0,0 +1,514 @@
+package graph;
+
+import java.io.IOException;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Out-of-core route from a JSON dataset to the condensation DAG, for edge lists that do not
+ * fit on the heap. Edges only ever live on disk or in one chunk of chunkEdges records:
+ *
+ *   load      the parser streams edges into edges.bin (input order, 16 bytes each)
+ *   buildCsr  edges.bin is read in chunks, each chunk sorted by source and spilled as a run;
+ *             the merge writes the CSR segments offsets.bin / targets.bin / weights.bin
+ *   graph     maps the segments read-only as an OffHeapGraph for SCC
+ *   condense  edges.bin again, mapped through cid; each chunk dedups its (a,b) pairs, is
+ *             spilled sorted, and the merge keeps min weight and first input position
+ *
+ * A merge opens at most FAN_IN runs at once; with more runs, consecutive groups of FAN_IN are
+ * first merged into intermediate runs, pass after pass. Runs stay in input order and ties go
+ * to the earlier run, so the CSR has exactly CsrGraph.build's edge order (u->v then v->u per
+ * edge when undirected) and the condensation is exactly Condensation.build's. Heap use is
+ * O(n) plus one chunk plus the condensation itself.
+ * Work files live in a temp directory that close() deletes.
+ */
+public class ExternalPipeline implements EdgeSink, Metrics, AutoCloseable {
+
+    public static final int DEFAULT_CHUNK = 1 << 20;
+    // smaller chunks only multiply run files; larger ones overflow the condense table
+    public static final int MIN_CHUNK = 1 << 10, MAX_CHUNK = 1 << 28;
+    // open runs (and 64 KiB buffers) per merge
+    static final int FAN_IN = 64;
+    private static final int BUF = 1 << 16;
+    private static final long EMPTY = -1L;
+
+    private final Path dir;
+    private final int chunkEdges;
+    private final Path edgeFile, offsetsFile, targetsFile, weightsFile;
+
+    private Out spool;
+    private int runSeq = 0;
+    private int n, m, total, source;
+    private boolean directed;
+    private String weightModel;
+
+    // metrics
+    private long startNs = 0, endNs = 0;
+    private double parseMs = 0, csrMs = 0, condenseMs = 0;
+    private long parseAllocBytes = 0, spilledBytes = 0;
+    private int csrRuns = 0, condRuns = 0, mergePasses = 0;
+    private long interEdges = 0, merged = 0, emitted = 0;
+
+    public ExternalPipeline() throws IOException { this(DEFAULT_CHUNK); }
+
+    public ExternalPipeline(int chunkEdges) throws IOException {
+        this(Files.createTempDirectory("graph-ext"), chunkEdges);
+    }
+
+    public ExternalPipeline(Path dir, int chunkEdges) throws IOException {
+        if (chunkEdges < MIN_CHUNK || chunkEdges > MAX_CHUNK)
+            throw new IllegalArgumentException("chunkEdges must be in [" + MIN_CHUNK + ", " + MAX_CHUNK + "]: " + chunkEdges);
+        this.dir = Files.createDirectories(dir);
+        this.chunkEdges = chunkEdges;
+        edgeFile = file("edges.bin");
+        offsetsFile = file("offsets.bin");
+        targetsFile = file("targets.bin");
+        weightsFile = file("weights.bin");
+    }
+
+    private Path file(String name) { return dir.resolve(name); }
+
+    // streams the dataset's edges to edges.bin; n, directed and source come from the header
+    public void load(Path json) throws IOException {
+        DatasetParser parser = new DatasetParser();
+        Dataset meta;
+        m = 0;
+        try (Out out = new Out(edgeFile)) {
+            spool = out;
+            meta = parser.parse(json, this);
+        } finally {
+            spool = null;
+        }
+        n = meta.n;
+        directed = meta.directed;
+        source = meta.source;
+        weightModel = meta.weightModel;
+        total = directed ? m : 2 * m;
+        if (!directed && m > Integer.MAX_VALUE / 2) throw new IOException("too many edges for an undirected CSR: " + m);
+        parseMs = parser.getTimeMs();
+        parseAllocBytes = parser.getAllocatedBytes();
+        spilledBytes = Files.size(edgeFile);
+    }
+
+    // EdgeSink: called by the parser for every edge, in input order
+    @Override
+    public void add(int u, int v, double w) throws IOException {
+        if (m == Integer.MAX_VALUE) throw new IOException("more than " + Integer.MAX_VALUE + " edges");
+        spool.putInt(u);
+        spool.putInt(v);
+        spool.putDouble(w);
+        m++;
+    }
+
+    // sorted runs of (source, target, weight), then the merge into the CSR segment files
+    public void buildCsr() throws IOException {
+        start();
+        int[] src = new int[chunkEdges], dst = new int[chunkEdges];
+        double[] wt = new double[chunkEdges];
+        long[] order = new long[chunkEdges];
+        List<Path> runs = new ArrayList<>();
+        int len = 0;
+        try (In in = new In(edgeFile)) {
+            for (int i = 0; i < m; i++) {
+                int u = in.getInt(), v = in.getInt();
+                double w = in.getDouble();
+                if (len + 2 > chunkEdges) { runs.add(spillCsrRun(src, dst, wt, order, len)); len = 0; }
+                src[len] = u; dst[len] = v; wt[len] = w; len++;
+                if (!directed) { src[len] = v; dst[len] = u; wt[len] = w; len++; }
+            }
+        }
+        if (len > 0 || runs.isEmpty()) runs.add(spillCsrRun(src, dst, wt, order, len));
+        csrRuns = runs.size();
+
+        runs = reduce(runs, "csr-run-", false, ExternalPipeline::copyCsr);
+        try (Merge mg = new Merge(runs, false);
+             Out off = new Out(offsetsFile); Out tgt = new Out(targetsFile); Out ws = new Out(weightsFile)) {
+            int next = 0, pos = 0;
+            while (mg.next()) {
+                int u = (int) mg.key();
+                while (next <= u) { off.putInt(pos); next++; }
+                tgt.putInt(mg.in().getInt());
+                ws.putDouble(mg.in().getDouble());
+                pos++;
+            }
+            while (next <= n) { off.putInt(pos); next++; }
+        } finally {
+            for (Path r : runs) Files.deleteIfExists(r);
+        }
+        stop();
+        csrMs = getTimeMillis();
+    }
+
+    // stable by source: the sort key carries the position inside the chunk
+    private Path spillCsrRun(int[] src, int[] dst, double[] wt, long[] order, int len) throws IOException {
+        for (int i = 0; i < len; i++) order[i] = ((long) src[i] << 32) | i;
+        Arrays.sort(order, 0, len);
+        Path run = file("csr-run-" + runSeq++ + ".bin");
+        try (Out out = new Out(run)) {
+            for (int k = 0; k < len; k++) {
+                int i = (int) order[k];
+                out.putInt(src[i]);
+                out.putInt(dst[i]);
+                out.putDouble(wt[i]);
+            }
+        }
+        spilledBytes += Files.size(run);
+        return run;
+    }
+
+    /** Merges the records of one merge into out; the record layout is the caller's. */
+    private interface RunMerger {
+        void merge(Merge mg, Out out) throws IOException;
+    }
+
+    // intermediate passes: FAN_IN consecutive runs at a time become one run, until a single merge can finish
+    private List<Path> reduce(List<Path> runs, String prefix, boolean longKeys, RunMerger merger) throws IOException {
+        while (runs.size() > FAN_IN) {
+            mergePasses++;
+            List<Path> next = new ArrayList<>();
+            for (int i = 0; i < runs.size(); i += FAN_IN) {
+                List<Path> group = runs.subList(i, Math.min(runs.size(), i + FAN_IN));
+                if (group.size() == 1) { next.add(group.get(0)); continue; }
+                Path run = file(prefix + runSeq++ + ".bin");
+                try (Merge mg = new Merge(group, longKeys); Out out = new Out(run)) {
+                    merger.merge(mg, out);
+                }
+                for (Path r : group) Files.delete(r);
+                spilledBytes += Files.size(run);
+                next.add(run);
+            }
+            runs = next;
+        }
+        return runs;
+    }
+
+    // CSR records (source, target, weight) copied in merge order
+    private static void copyCsr(Merge mg, Out out) throws IOException {
+        while (mg.next()) {
+            out.putInt((int) mg.key());
+            out.putInt(mg.in().getInt());
+            out.putDouble(mg.in().getDouble());
+        }
+    }
+
+    // condensation records (key, weight, first) with duplicates combined
+    private static void mergeCond(Merge mg, Out out) throws IOException {
+        CondCursor c = new CondCursor(mg);
+        while (c.next()) {
+            out.putLong(c.key);
+            out.putDouble(c.w);
+            out.putInt(c.first);
+        }
+    }
+
+    // the CSR segments as a read-only off-heap graph; unmapped when the arena closes
+    public OffHeapGraph graph(OffHeapArena arena) throws IOException {
+        if (!Files.exists(offsetsFile)) buildCsr();
+        OffHeapArena.Ints off = arena.mapInts(offsetsFile, 0, n + 1), tgt = arena.mapInts(targetsFile, 0, total);
+        OffHeapArena.Doubles wt = arena.mapDoubles(weightsFile, 0, total);
+        return new OffHeapGraph(n, total, off, tgt, wt, source);
+    }
+
+    /**
+     * Condensation of the input edges under cid, identical to Condensation.build: each
+     * component's out-edges in first-occurrence order, parallel edges merged to the min weight.
+     */
+    public CsrGraph condense(int[] cid, int numComponents) throws IOException {
+        start();
+        interEdges = merged = emitted = 0;
+        int cap = 16;
+        while (cap < chunkEdges * 2) cap <<= 1;
+        long[] keys = new long[cap];
+        double[] minW = new double[cap];
+        int[] first = new int[cap];
+        Arrays.fill(keys, EMPTY);
+        int mask = cap - 1, size = 0;
+        List<Path> runs = new ArrayList<>();
+        try (In in = new In(edgeFile)) {
+            for (int i = 0; i < m; i++) {
+                int a = cid[in.getInt()], b = cid[in.getInt()];
+                double w = in.getDouble();
+                if (a == b) continue;
+                interEdges++;
+                long key = ((long) a << 32) | (b & 0xFFFFFFFFL);
+                int slot = (int) mix(key) & mask;
+                while (keys[slot] != EMPTY && keys[slot] != key) slot = (slot + 1) & mask;
+                if (keys[slot] == key) {
+                    if (w < minW[slot]) minW[slot] = w;
+                    continue;
+                }
+                keys[slot] = key; minW[slot] = w; first[slot] = i;
+                if (++size == chunkEdges) { runs.add(spillCondRun(keys, minW, first, size)); size = 0; }
+            }
+        }
+        if (size > 0) runs.add(spillCondRun(keys, minW, first, size));
+        condRuns = runs.size();
+
+        runs = reduce(runs, "cond-run-", true, ExternalPipeline::mergeCond);
+        EdgeList out = new EdgeList(16);
+        try (Merge mg = new Merge(runs, true)) {
+            CondCursor c = new CondCursor(mg);
+            // one component's distinct out-edges, re-ordered by first occurrence when the component changes
+            int groupA = -1, len = 0;
+            int[] gb = new int[16], gFirst = new int[16];
+            double[] gw = new double[16];
+            long[] order = new long[16];
+            while (c.next()) {
+                long key = c.key;
+                double w = c.w;
+                int f = c.first;
+                int a = (int) (key >>> 32), b = (int) key;
+                if (a != groupA) {
+                    emitGroup(out, groupA, gb, gw, gFirst, order, len);
+                    groupA = a;
+                    len = 0;
+                }
+                if (len == gb.length) {
+                    gb = Arrays.copyOf(gb, len * 2);
+                    gw = Arrays.copyOf(gw, len * 2);
+                    gFirst = Arrays.copyOf(gFirst, len * 2);
+                    order = new long[len * 2];
+                }
+                gb[len] = b; gw[len] = w; gFirst[len] = f; len++;
+            }
+            emitGroup(out, groupA, gb, gw, gFirst, order, len);
+        } finally {
+            for (Path r : runs) Files.deleteIfExists(r);
+        }
+        emitted = out.size();
+        merged = interEdges - emitted;
+        CsrGraph g = CsrGraph.build(numComponents, out, false);
+        stop();
+        condenseMs = getTimeMillis();
+        return g;
+    }
+
+    private static void emitGroup(EdgeList out, int a, int[] gb, double[] gw, int[] gFirst, long[] order, int len) {
+        for (int i = 0; i < len; i++) order[i] = ((long) gFirst[i] << 32) | i;
+        Arrays.sort(order, 0, len);
+        for (int k = 0; k < len; k++) {
+            int i = (int) order[k];
+            out.add(a, gb[i], gw[i]);
+        }
+    }
+
+    // the chunk's distinct pairs sorted by (a,b); the table is cleared for the next chunk
+    private Path spillCondRun(long[] keys, double[] minW, int[] first, int size) throws IOException {
+        int[] slots = new int[size];
+        long[] sorted = new long[size];
+        for (int s = 0, k = 0; s < keys.length; s++) if (keys[s] != EMPTY) sorted[k++] = keys[s];
+        Arrays.sort(sorted);
+        int mask = keys.length - 1;
+        for (int k = 0; k < size; k++) {
+            int slot = (int) mix(sorted[k]) & mask;
+            while (keys[slot] != sorted[k]) slot = (slot + 1) & mask;
+            slots[k] = slot;
+        }
+        Path run = file("cond-run-" + runSeq++ + ".bin");
+        try (Out out = new Out(run)) {
+            for (int k = 0; k < size; k++) {
+                out.putLong(sorted[k]);
+                out.putDouble(minW[slots[k]]);
+                out.putInt(first[slots[k]]);
+            }
+        }
+        Arrays.fill(keys, EMPTY);
+        spilledBytes += Files.size(run);
+        return run;
+    }
+
+    // murmur3 64-bit finalizer, as in Condensation
+    private static long mix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    // deletes the work directory
+    @Override
+    public void close() throws IOException {
+        if (!Files.exists(dir)) return;
+        try (Stream<Path> s = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) s::iterator) Files.deleteIfExists(p);
+        }
+        Files.deleteIfExists(dir);
+    }
+
+    /**
+     * k-way merge over at most FAN_IN runs whose records start with an int or long key.
+     * next() positions on the smallest key, ties to the earlier run; the caller then reads
+     * the rest of the record from in() before calling next() again.
+     */
+    private static final class Merge implements AutoCloseable {
+        private final In[] in;
+        private final long[] head;
+        private final boolean longKeys;
+        private final PriorityQueue<Integer> pq;
+        private int top = -1;
+
+        Merge(List<Path> runs, boolean longKeys) throws IOException {
+            if (runs.size() > FAN_IN) throw new IllegalStateException("merge fan-in " + runs.size() + " > " + FAN_IN);
+            this.in = new In[runs.size()];
+            this.head = new long[runs.size()];
+            this.longKeys = longKeys;
+            this.pq = new PriorityQueue<>((a, b) -> head[a] != head[b] ? Long.compare(head[a], head[b]) : Integer.compare(a, b));
+            try {
+                for (int r = 0; r < in.length; r++) {
+                    in[r] = new In(runs.get(r));
+                    advance(r);
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        private void advance(int r) throws IOException {
+            if (!in[r].hasMore()) return;
+            head[r] = longKeys ? in[r].getLong() : in[r].getInt();
+            pq.add(r);
+        }
+
+        boolean next() throws IOException {
+            if (top != -1) advance(top);
+            top = pq.isEmpty() ? -1 : pq.poll();
+            return top != -1;
+        }
+
+        long key() { return head[top]; }
+        In in() { return in[top]; }
+
+        @Override
+        public void close() throws IOException {
+            for (In i : in) if (i != null) i.close();
+        }
+    }
+
+    /**
+     * Distinct (a,b) records of a condensation merge. Runs are in input order, so among
+     * duplicates the earlier run's entry carries the first occurrence; weights take the min.
+     */
+    private static final class CondCursor {
+        private final Merge mg;
+        long key;
+        double w;
+        int first;
+        private boolean pending;
+        private long nextKey;
+        private double nextW;
+        private int nextFirst;
+
+        CondCursor(Merge mg) throws IOException {
+            this.mg = mg;
+            pending = read();
+        }
+
+        private boolean read() throws IOException {
+            if (!mg.next()) return false;
+            nextKey = mg.key();
+            nextW = mg.in().getDouble();
+            nextFirst = mg.in().getInt();
+            return true;
+        }
+
+        boolean next() throws IOException {
+            if (!pending) return false;
+            key = nextKey; w = nextW; first = nextFirst;
+            while ((pending = read()) && nextKey == key) if (nextW < w) w = nextW;
+            return true;
+        }
+    }
+
+    /** Buffered little-endian record writer. */
+    private static final class Out implements AutoCloseable {
+        private final FileChannel ch;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(BUF).order(ByteOrder.LITTLE_ENDIAN);
+
+        Out(Path file) throws IOException {
+            ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        }
+
+        void putInt(int v) throws IOException { room(4); buf.putInt(v); }
+        void putLong(long v) throws IOException { room(8); buf.putLong(v); }
+        void putDouble(double v) throws IOException { room(8); buf.putDouble(v); }
+
+        private void room(int bytes) throws IOException {
+            if (buf.remaining() < bytes) flush();
+        }
+
+        private void flush() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) ch.write(buf);
+            buf.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try { flush(); } finally { ch.close(); }
+        }
+    }
+
+    /** Buffered little-endian record reader. */
+    private static final class In implements AutoCloseable {
+        private final FileChannel ch;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(BUF).order(ByteOrder.LITTLE_ENDIAN);
+        private boolean eof = false;
+
+        In(Path file) throws IOException {
+            ch = FileChannel.open(file, StandardOpenOption.READ);
+            buf.limit(0);
+        }
+
+        boolean hasMore() throws IOException { need(1); return buf.hasRemaining(); }
+        int getInt() throws IOException { need(4); return buf.getInt(); }
+        long getLong() throws IOException { need(8); return buf.getLong(); }
+        double getDouble() throws IOException { need(8); return buf.getDouble(); }
+
+        private void need(int bytes) throws IOException {
+            if (buf.remaining() >= bytes || eof) return;
+            buf.compact();
+            while (buf.position() < bytes && !eof) if (ch.read(buf) < 0) eof = true;
+            buf.flip();
+        }
+
+        @Override
+        public void close() throws IOException { ch.close(); }
+    }
+
+    // Metrics
+    @Override public void start() { startNs = System.nanoTime(); }
+    @Override public void stop() { endNs = System.nanoTime(); }
+    @Override public void reset() { csrRuns = condRuns = mergePasses = 0; spilledBytes = interEdges = merged = emitted = 0; startNs = endNs = 0; }
+    @Override public long getTimeNanos() { return endNs - startNs; }
+    @Override public double getTimeMillis() { return (endNs - startNs) / 1_000_000.0; }
+
+    @Override
+    public String report() {
+        return String.format("ExternalPipeline(edges=%d chunk=%d csrRuns=%d condRuns=%d passes=%d spilled=%dB parse=%.3fms csr=%.3fms condense=%.3fms)",
+                m, chunkEdges, csrRuns, condRuns, mergePasses, spilledBytes, parseMs, csrMs, condenseMs);
+    }
+
+    // getters
+    public int getN() { return n; }
+    public int getEdgeCount() { return m; }
+    public boolean isDirected() { return directed; }
+    public int getSource() { return source; }
+    public String getWeightModel() { return weightModel; }
+    public double getParseMs() { return parseMs; }
+    public long getParseAllocBytes() { return parseAllocBytes; }
+    public double getCsrMs() { return csrMs; }
+    public double getCondenseMs() { return condenseMs; }
+    public int getCsrRuns() { return csrRuns; }
+    public int getCondRuns() { return condRuns; }
+    public int getMergePasses() { return mergePasses; }
+    public long getSpilledBytes() { return spilledBytes; }
+    public long getInterEdges() { return interEdges; }
+    public long getMerged() { return merged; }
+    public long getEmitted() { return emitted; }
+}
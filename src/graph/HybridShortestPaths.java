@@ -0,0 +1,184 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * Exact vertex-level single-source shortest paths on a graph with cycles, at near-DAG cost.
+ * Components are processed in topological order of the condensation. A trivial component
+ * (one vertex) is a plain DAG relaxation. A non-trivial one runs Dijkstra on a primitive
+ * indexed binary heap, seeded with the distances its members got from earlier components
+ * and restricted to its own edges; edges leaving it are relaxed as its vertices settle.
+ * Every edge is relaxed once, and only vertices inside cycles pay the heap.
+ * Edge weights inside non-trivial components must be >= 0 (Dijkstra); edges between
+ * components may be negative, as in DAGSP.
+ */
+public class HybridShortestPaths implements Metrics {
+
+    // heap scratch, kept between runs and only grown; hpos is -1 outside the heap
+    private int[] heap = new int[0], hpos = new int[0];
+    private double[] key = new double[0];
+    private int size;
+
+    // metrics
+    private long startNs = 0, endNs = 0;
+    private long relaxations = 0, heapPops = 0, dijkstraComponents = 0, sweptVertices = 0;
+
+    public HybridShortestPaths() { reset(); }
+
+    // Tarjan numbers components in reverse topological order, so descending cid is a topo order
+    public PathResult run(CsrGraph g, int src) {
+        Components comps = new SCC(g.n).runFlat(g);
+        int[] order = new int[comps.count];
+        for (int i = 0; i < order.length; i++) order[i] = comps.count - 1 - i;
+        return run(g, comps, order, src);
+    }
+
+    /**
+     * comps must be the SCCs of g and componentOrder a topological order of their condensation
+     * (e.g. TopoSort on Condensation.build). target() is the last reachable vertex when the
+     * vertices are listed component by component in that order.
+     */
+    public PathResult run(CsrGraph g, Components comps, int[] componentOrder, int src) {
+        reset();
+        start();
+        int n = g.n;
+        int[] off = g.offsets, tgt = g.targets, cid = comps.cid;
+        double[] wt = g.weights;
+        double[] d = new double[n]; Arrays.fill(d, Double.POSITIVE_INFINITY);
+        int[] prev = new int[n]; Arrays.fill(prev, -1);
+        prepare(n);
+        d[src] = 0;
+        int target = -1;
+        for (int c : componentOrder) {
+            int from = comps.compStart[c], to = comps.compStart[c + 1];
+            if (to - from == 1) {
+                int u = comps.comp[from];
+                if (Double.isInfinite(d[u])) continue;
+                sweptVertices++;
+                target = u;
+                for (int e = off[u], end = off[u + 1]; e < end; e++) {
+                    int v = tgt[e];
+                    if (v == u) {
+                        if (wt[e] < 0) throw negativeCycle(u);
+                        continue;
+                    }
+                    if (d[v] > d[u] + wt[e]) {
+                        d[v] = d[u] + wt[e];
+                        prev[v] = u;
+                        if (Instrumentation.COUNTERS) relaxations++;
+                    }
+                }
+                continue;
+            }
+            // seed with every member already reached from an earlier component
+            for (int i = from; i < to; i++) {
+                int u = comps.comp[i];
+                if (!Double.isInfinite(d[u])) push(u, d[u]);
+            }
+            if (size == 0) continue;
+            dijkstraComponents++;
+            while (size > 0) {
+                int u = pop();
+                if (Instrumentation.COUNTERS) heapPops++;
+                for (int e = off[u], end = off[u + 1]; e < end; e++) {
+                    int v = tgt[e];
+                    double nd = d[u] + wt[e];
+                    if (cid[v] == c && wt[e] < 0) throw negativeCycle(u);
+                    if (d[v] <= nd) continue;
+                    d[v] = nd;
+                    prev[v] = u;
+                    if (Instrumentation.COUNTERS) relaxations++;
+                    if (cid[v] == c) push(v, nd);
+                }
+            }
+            for (int i = from; i < to; i++) if (!Double.isInfinite(d[comps.comp[i]])) target = comps.comp[i];
+        }
+        stop();
+        return new PathResult(d, prev, target, false);
+    }
+
+    private static IllegalArgumentException negativeCycle(int u) {
+        return new IllegalArgumentException("negative weight inside a cyclic component at vertex " + u);
+    }
+
+    private void prepare(int n) {
+        if (hpos.length < n) {
+            heap = new int[n];
+            hpos = new int[n];
+            key = new double[n];
+        }
+        Arrays.fill(hpos, 0, n, -1);
+        size = 0;
+    }
+
+    // insert or decrease-key
+    private void push(int v, double k) {
+        int i = hpos[v];
+        if (i == -1) {
+            i = size++;
+            heap[i] = v;
+        }
+        key[v] = k;
+        siftUp(i);
+    }
+
+    private int pop() {
+        int top = heap[0];
+        hpos[top] = -1;
+        if (--size > 0) {
+            heap[0] = heap[size];
+            siftDown(0);
+        }
+        return top;
+    }
+
+    private void siftUp(int i) {
+        int v = heap[i];
+        double k = key[v];
+        while (i > 0) {
+            int p = (i - 1) >>> 1, pv = heap[p];
+            if (key[pv] <= k) break;
+            heap[i] = pv;
+            hpos[pv] = i;
+            i = p;
+        }
+        heap[i] = v;
+        hpos[v] = i;
+    }
+
+    private void siftDown(int i) {
+        int v = heap[i];
+        double k = key[v];
+        while (true) {
+            int c = 2 * i + 1;
+            if (c >= size) break;
+            if (c + 1 < size && key[heap[c + 1]] < key[heap[c]]) c++;
+            if (key[heap[c]] >= k) break;
+            heap[i] = heap[c];
+            hpos[heap[i]] = i;
+            i = c;
+        }
+        heap[i] = v;
+        hpos[v] = i;
+    }
+
+    // Metrics
+    @Override public void start() { startNs = System.nanoTime(); }
+    @Override public void stop() { endNs = System.nanoTime(); }
+    @Override public void reset() { relaxations = heapPops = dijkstraComponents = sweptVertices = 0; startNs = endNs = 0; }
+    @Override public long getTimeNanos() { return endNs - startNs; }
+    @Override public double getTimeMillis() { return (endNs - startNs) / 1_000_000.0; }
+
+    @Override
+    public String report() {
+        return String.format("HybridShortestPaths(relax=%d swept=%d dijkstraComps=%d pops=%d time=%.3fms)",
+                relaxations, sweptVertices, dijkstraComponents, heapPops, getTimeMillis());
+    }
+
+    // getters
+    public long getRelaxations() { return relaxations; }
+    public long getHeapPops() { return heapPops; }
+    public long getDijkstraComponents() { return dijkstraComponents; }
+    public long getSweptVertices() { return sweptVertices; }
+    public double getTimeMs() { return getTimeMillis(); }
+}
@@ -0,0 +1,259 @@
+package graph;
+
+import java.util.*;
+
+/**
+ * SCCs and condensation maintained while edges stream in. Components are union-find
+ * sets; their representatives keep a topological order like DynamicTopoOrder.
+ * An edge a -> b against that order searches only the region ord[b]..ord[a].
+ * If the forward search from b reaches a, every component that is both reachable
+ * from b and reaches a lies on the new cycle, and those components are merged.
+ * The rest of the region is re-slotted: backward-only, then the merged component,
+ * then forward-only.
+ * components() and condensation() map the maintained partition onto Tarjan's numbering
+ * (Components.inTarjanOrder), so they equal what the batch path writes for the same edges,
+ * not just the same partition.
+ */
+public class IncrementalSCC implements Metrics {
+
+    private final int n;
+    private final int[] parent, size;
+    private final int[] ord, at;              // representative -> position, position -> representative (-1 = free)
+    private final int[][] out, in;            // component edges; entries may name merged (non-root) ids
+    private final int[] outDeg, inDeg;
+    private final EdgeList edges;
+    private int count;
+    // search scratch; fmark/bmark[x] == epoch means x was reached forward/backward this update
+    private final int[] fmark, bmark, seen, stack;
+    private int epoch = 0;
+    private int[] fwd = new int[16], bwd = new int[16];
+    private int fwdSize, bwdSize;
+
+    // metrics
+    private long startNs = 0, endNs = 0;
+    private long updates = 0, reorders = 0, merges = 0, lastTouched = 0, totalTouched = 0;
+
+    public IncrementalSCC(int n) {
+        this.n = n;
+        count = n;
+        parent = new int[n];
+        size = new int[n];
+        ord = new int[n];
+        at = new int[n];
+        for (int i = 0; i < n; i++) { parent[i] = ord[i] = at[i] = i; size[i] = 1; }
+        out = new int[n][];
+        in = new int[n][];
+        outDeg = new int[n];
+        inDeg = new int[n];
+        edges = new EdgeList(16);
+        fmark = new int[n];
+        bmark = new int[n];
+        seen = new int[n];
+        stack = new int[n];
+    }
+
+    // starts from a batch SCC run over g; later edges are incremental
+    public IncrementalSCC(CsrGraph g) {
+        this(g.n);
+        for (int u = 0; u < n; u++)
+            for (int e = g.offsets[u]; e < g.offsets[u + 1]; e++) edges.add(u, g.targets[e], g.weights[e]);
+        Components comps = SccEngine.forGraph(g).components(g);
+        CsrGraph cond = new Condensation().build(comps, edges);
+        int[] order = new TopoSort().sort(cond);
+        Arrays.fill(at, -1);
+        for (int c = 0; c < comps.count; c++) {
+            int root = comps.comp[comps.compStart[c]];
+            for (int i = comps.compStart[c]; i < comps.compStart[c + 1]; i++) parent[comps.comp[i]] = root;
+            size[root] = comps.size(c);
+        }
+        for (int p = 0; p < order.length; p++) {
+            int root = comps.comp[comps.compStart[order[p]]];
+            ord[root] = p;
+            at[p] = root;
+        }
+        for (int c = 0; c < cond.n; c++)
+            for (int e = cond.offsets[c]; e < cond.offsets[c + 1]; e++)
+                link(comps.comp[comps.compStart[c]], comps.comp[comps.compStart[cond.targets[e]]]);
+        count = comps.count;
+    }
+
+    public boolean addEdge(int u, int v) { return addEdge(u, v, 1.0); }
+
+    /** Adds u -> v; returns true if it closed a cycle and merged components. */
+    public boolean addEdge(int u, int v, double w) {
+        start();
+        updates++;
+        lastTouched = 0;
+        edges.add(u, v, w);
+        boolean merged = false;
+        int a = find(u), b = find(v);
+        if (a != b) {
+            if (ord[a] > ord[b]) merged = restore(a, b);
+            if (!merged) link(a, b);
+        }
+        totalTouched += lastTouched;
+        stop();
+        return merged;
+    }
+
+    // re-establishes the order after a -> b with ord[a] > ord[b]; merges a cycle if one closed
+    private boolean restore(int a, int b) {
+        int lb = ord[b], ub = ord[a];
+        epoch++;
+        fwdSize = bwdSize = 0;
+        int sp = 0;
+        stack[sp++] = b; fmark[b] = epoch;
+        while (sp > 0) {
+            int x = stack[--sp];
+            fwd = push(fwd, fwdSize++, x);
+            if (x == a) continue;
+            for (int i = 0; i < outDeg[x]; i++) {
+                int y = find(out[x][i]);
+                if (y != x && fmark[y] != epoch && ord[y] <= ub) { fmark[y] = epoch; stack[sp++] = y; }
+            }
+        }
+        stack[sp++] = a; bmark[a] = epoch;
+        while (sp > 0) {
+            int x = stack[--sp];
+            if (fmark[x] != epoch) bwd = push(bwd, bwdSize++, x);   // shared ones are already in fwd
+            if (x == b) continue;
+            for (int i = 0; i < inDeg[x]; i++) {
+                int y = find(in[x][i]);
+                if (y != x && bmark[y] != epoch && ord[y] >= lb) { bmark[y] = epoch; stack[sp++] = y; }
+            }
+        }
+        lastTouched = fwdSize + bwdSize;
+        reorders++;
+
+        // every old position in the region, before anything is renumbered
+        int[] slots = new int[fwdSize + bwdSize];
+        for (int i = 0; i < fwdSize; i++) slots[i] = ord[fwd[i]];
+        for (int i = 0; i < bwdSize; i++) slots[fwdSize + i] = ord[bwd[i]];
+        Arrays.sort(slots);
+        for (int s : slots) at[s] = -1;
+
+        boolean cycle = fmark[a] == epoch;
+        int root = -1;
+        if (cycle) {
+            // components on the cycle: reachable from b and reaching a
+            int k = 0;
+            for (int i = 0; i < fwdSize; i++) if (bmark[fwd[i]] == epoch) stack[k++] = fwd[i];
+            int keep = 0;
+            for (int i = 0; i < fwdSize; i++) if (bmark[fwd[i]] != epoch) fwd[keep++] = fwd[i];
+            fwdSize = keep;
+            root = merge(stack, k);
+        }
+        sortByOrd(bwd, bwdSize);
+        sortByOrd(fwd, fwdSize);
+
+        // backward-only at the bottom, then the merged component, forward-only at the top
+        int p = 0;
+        for (int i = 0; i < bwdSize; i++) place(bwd[i], slots[p++]);
+        if (cycle) place(root, slots[p]);
+        p = slots.length - fwdSize;
+        for (int i = 0; i < fwdSize; i++) place(fwd[i], slots[p++]);
+        return cycle;
+    }
+
+    // unions the given representatives and rebuilds their adjacency without internal or duplicate edges
+    private int merge(int[] members, int k) {
+        int root = members[0];
+        for (int i = 1; i < k; i++) {
+            int x = members[i];
+            if (size[x] > size[root]) { parent[root] = x; size[x] += size[root]; root = x; }
+            else { parent[x] = root; size[root] += size[x]; }
+        }
+        count -= k - 1;
+        merges++;
+        int[] o = gather(out, outDeg, members, k, root);
+        int[] i = gather(in, inDeg, members, k, root);
+        for (int j = 0; j < k; j++) { out[members[j]] = null; outDeg[members[j]] = 0; in[members[j]] = null; inDeg[members[j]] = 0; }
+        out[root] = o; outDeg[root] = o.length;
+        in[root] = i; inDeg[root] = i.length;
+        return root;
+    }
+
+    private int[] gather(int[][] adj, int[] deg, int[] members, int k, int root) {
+        epoch++;
+        seen[root] = epoch;
+        int[] res = new int[4];
+        int len = 0;
+        for (int j = 0; j < k; j++) {
+            int x = members[j];
+            for (int e = 0; e < deg[x]; e++) {
+                int y = find(adj[x][e]);
+                if (seen[y] != epoch) { seen[y] = epoch; res = push(res, len++, y); }
+            }
+        }
+        return Arrays.copyOf(res, len);
+    }
+
+    private void place(int x, int slot) {
+        ord[x] = slot;
+        at[slot] = x;
+    }
+
+    private void sortByOrd(int[] a, int size) {
+        long[] keyed = new long[size];
+        for (int i = 0; i < size; i++) keyed[i] = ((long) ord[a[i]] << 32) | a[i];
+        Arrays.sort(keyed);
+        for (int i = 0; i < size; i++) a[i] = (int) keyed[i];
+    }
+
+    private void link(int a, int b) {
+        out[a] = push(out[a] == null ? new int[2] : out[a], outDeg[a]++, b);
+        in[b] = push(in[b] == null ? new int[2] : in[b], inDeg[b]++, a);
+    }
+
+    private static int[] push(int[] a, int size, int x) {
+        if (size == a.length) a = Arrays.copyOf(a, Math.max(4, size * 2));
+        a[size] = x;
+        return a;
+    }
+
+    // representative of v's component (path halving)
+    public int find(int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    public boolean sameComponent(int u, int v) { return find(u) == find(v); }
+    public int componentCount() { return count; }
+    public int vertexCount() { return n; }
+
+    // snapshot, numbered like the batch results: the maintained partition in Tarjan's order over the edges so far
+    public Components components() {
+        int[] label = new int[n];
+        for (int v = 0; v < n; v++) label[v] = find(v);
+        return Components.inTarjanOrder(CsrGraph.build(n, edges, false), label);
+    }
+
+    // condensation of everything added so far, with the batch dedup rules and numbering
+    public CsrGraph condensation() {
+        return new Condensation().build(components(), edges);
+    }
+
+    // Metrics
+    @Override public void start() { startNs = System.nanoTime(); }
+    @Override public void stop() { endNs = System.nanoTime(); }
+    @Override public void reset() { updates = reorders = merges = lastTouched = totalTouched = 0; startNs = endNs = 0; }
+    @Override public long getTimeNanos() { return endNs - startNs; }
+    @Override public double getTimeMillis() { return (endNs - startNs) / 1_000_000.0; }
+
+    @Override
+    public String report() {
+        return String.format("IncSCC(components=%d updates=%d reorders=%d merges=%d touched=%d last=%d time=%.3fms)",
+                count, updates, reorders, merges, totalTouched, lastTouched, getTimeMillis());
+    }
+
+    // getters
+    public long getUpdates() { return updates; }
+    public long getReorders() { return reorders; }
+    public long getMerges() { return merges; }
+    public long getLastTouched() { return lastTouched; }
+    public long getTotalTouched() { return totalTouched; }
+    public double getTimeMs() { return getTimeMillis(); }
+}
@@ -0,0 +1,167 @@
+package graph;
+
+import java.io.*;
+import java.lang.management.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Named phase timers and counters for whole pipeline stages.
+ *   Dataset d = inst.time("parse", () -> parser.read(file));
+ *   inst.run("serialize", () -> writer.write(result));
+ *   inst.count("edges", m);
+ * A phase records its wall time into a latency histogram (across repeated runs).
+ * It also records the bytes the thread allocated and the GC collections and GC time
+ * seen while it ran. The GC figures are JVM-wide, so they are only exact when phases
+ * do not overlap.
+ * Exported as JSON and Prometheus text.
+ *
+ * Switches, read once at class load (static final, so the JIT folds the checks away):
+ *   -Dgraph.metrics=off    phase() returns a no-op and count() does nothing
+ *   -Dgraph.counters=off   the per-edge counters in DAGSP and Condensation are skipped
+ *                          (their CSV fields are left empty); SCC and TopoSort derive theirs after the loop
+ */
+public final class Instrumentation {
+
+    public static final boolean ENABLED = !"off".equals(System.getProperty("graph.metrics"));
+    public static final boolean COUNTERS = !"off".equals(System.getProperty("graph.counters"));
+
+    /** Closing a phase records it. */
+    public interface Phase extends AutoCloseable {
+        @Override void close();
+    }
+
+    /** A phase body that returns a value; E keeps the caller's checked exception. */
+    public interface Timed<T, E extends Exception> { T call() throws E; }
+
+    /** A phase body without a result. */
+    public interface Task<E extends Exception> { void run() throws E; }
+
+    private static final Phase NOOP = () -> { };
+
+    /** Everything recorded for one phase name. */
+    public static final class PhaseStats {
+        public final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder allocBytes = new LongAdder(), gcCount = new LongAdder(), gcTimeMs = new LongAdder();
+
+        public long getAllocBytes() { return allocBytes.sum(); }
+        public long getGcCount() { return gcCount.sum(); }
+        public long getGcTimeMs() { return gcTimeMs.sum(); }
+    }
+
+    private final Map<String, PhaseStats> phases = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    public Phase phase(String name) {
+        if (!ENABLED) return NOOP;
+        PhaseStats s = phases.computeIfAbsent(name, k -> new PhaseStats());
+        long gc0 = gcCount(), gcMs0 = gcTimeMs(), alloc0 = Metrics.threadAllocatedBytes();
+        long t0 = System.nanoTime();
+        return () -> {
+            s.latency.record(System.nanoTime() - t0);
+            s.allocBytes.add(Metrics.threadAllocatedBytes() - alloc0);
+            s.gcCount.add(gcCount() - gc0);
+            s.gcTimeMs.add(gcTimeMs() - gcMs0);
+        };
+    }
+
+    public <T, E extends Exception> T time(String name, Timed<T, E> body) throws E {
+        Phase p = phase(name);
+        try {
+            return body.call();
+        } finally {
+            p.close();
+        }
+    }
+
+    public <E extends Exception> void run(String name, Task<E> body) throws E {
+        Phase p = phase(name);
+        try {
+            body.run();
+        } finally {
+            p.close();
+        }
+    }
+
+    public void count(String name, long delta) {
+        if (!ENABLED) return;
+        counters.computeIfAbsent(name, k -> new LongAdder()).add(delta);
+    }
+
+    public Map<String, PhaseStats> getPhases() { return new TreeMap<>(phases); }
+
+    public Map<String, Long> getCounters() {
+        Map<String, Long> m = new TreeMap<>();
+        counters.forEach((k, v) -> m.put(k, v.sum()));
+        return m;
+    }
+
+    private static long gcCount() {
+        long c = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) c += Math.max(0, gc.getCollectionCount());
+        return c;
+    }
+
+    private static long gcTimeMs() {
+        long t = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) t += Math.max(0, gc.getCollectionTime());
+        return t;
+    }
+
+    public void writeJson(Path file) throws IOException {
+        try (BufferedWriter w = Files.newBufferedWriter(file)) {
+            w.write("{\n  \"metrics_enabled\": " + ENABLED + ",\n  \"counters_enabled\": " + COUNTERS + ",\n  \"phases\": {");
+            boolean first = true;
+            for (Map.Entry<String, PhaseStats> e : getPhases().entrySet()) {
+                LatencyHistogram h = e.getValue().latency;
+                w.write(first ? "\n" : ",\n");
+                first = false;
+                w.write(String.format(Locale.ROOT,
+                        "    \"%s\": {\"count\": %d, \"total_ms\": %.3f, \"mean_ms\": %.3f, \"min_ms\": %.3f, \"p50_ms\": %.3f, "
+                                + "\"p90_ms\": %.3f, \"p99_ms\": %.3f, \"max_ms\": %.3f, \"alloc_bytes\": %d, \"gc_count\": %d, \"gc_time_ms\": %d}",
+                        e.getKey(), h.getCount(), h.getSumNanos() / 1e6, h.getMeanNanos() / 1e6, h.getMinNanos() / 1e6,
+                        h.percentile(0.5) / 1e6, h.percentile(0.9) / 1e6, h.percentile(0.99) / 1e6, h.getMaxNanos() / 1e6,
+                        e.getValue().getAllocBytes(), e.getValue().getGcCount(), e.getValue().getGcTimeMs()));
+            }
+            w.write("\n  },\n  \"counters\": {");
+            first = true;
+            for (Map.Entry<String, Long> e : getCounters().entrySet()) {
+                w.write(first ? "\n" : ",\n");
+                first = false;
+                w.write("    \"" + e.getKey() + "\": " + e.getValue());
+            }
+            w.write("\n  }\n}\n");
+        }
+    }
+
+    // Prometheus text exposition format (version 0.0.4)
+    public void writePrometheus(Path file) throws IOException {
+        Map<String, PhaseStats> ph = getPhases();
+        try (BufferedWriter w = Files.newBufferedWriter(file)) {
+            w.write("# HELP graph_phase_seconds Wall time of a pipeline phase.\n# TYPE graph_phase_seconds summary\n");
+            for (Map.Entry<String, PhaseStats> e : ph.entrySet()) {
+                LatencyHistogram h = e.getValue().latency;
+                for (double q : new double[]{0.5, 0.9, 0.99})
+                    w.write(String.format(Locale.ROOT, "graph_phase_seconds{phase=\"%s\",quantile=\"%s\"} %.9f\n",
+                            e.getKey(), q, h.percentile(q) / 1e9));
+                w.write(String.format(Locale.ROOT, "graph_phase_seconds_sum{phase=\"%s\"} %.9f\n", e.getKey(), h.getSumNanos() / 1e9));
+                w.write(String.format(Locale.ROOT, "graph_phase_seconds_count{phase=\"%s\"} %d\n", e.getKey(), h.getCount()));
+            }
+            w.write("# HELP graph_phase_alloc_bytes_total Bytes allocated by the thread running a phase.\n# TYPE graph_phase_alloc_bytes_total counter\n");
+            for (Map.Entry<String, PhaseStats> e : ph.entrySet())
+                w.write("graph_phase_alloc_bytes_total{phase=\"" + e.getKey() + "\"} " + e.getValue().getAllocBytes() + "\n");
+            w.write("# HELP graph_phase_gc_collections_total GC collections while a phase ran.\n# TYPE graph_phase_gc_collections_total counter\n");
+            for (Map.Entry<String, PhaseStats> e : ph.entrySet())
+                w.write("graph_phase_gc_collections_total{phase=\"" + e.getKey() + "\"} " + e.getValue().getGcCount() + "\n");
+            w.write("# HELP graph_phase_gc_seconds_total GC time while a phase ran.\n# TYPE graph_phase_gc_seconds_total counter\n");
+            for (Map.Entry<String, PhaseStats> e : ph.entrySet())
+                w.write(String.format(Locale.ROOT, "graph_phase_gc_seconds_total{phase=\"%s\"} %.3f\n", e.getKey(), e.getValue().getGcTimeMs() / 1e3));
+            for (Map.Entry<String, Long> e : getCounters().entrySet()) {
+                String name = "graph_" + e.getKey().replaceAll("[^A-Za-z0-9_]", "_") + "_total";
+                w.write("# TYPE " + name + " counter\n" + name + " " + e.getValue() + "\n");
+            }
+        }
+    }
+}
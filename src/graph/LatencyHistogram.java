@@ -0,0 +1,60 @@
+package graph;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ * Thread-safe log-linear histogram of nanosecond latencies: values below 16 are exact,
+ * above that every power of two is split into 8 buckets (at most 12.5% relative error).
+ * count, sum, min and max are exact; percentiles report the bucket's upper bound.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 3, SUB = 1 << SUB_BITS, LINEAR = 2 * SUB;
+    private static final int BUCKETS = LINEAR + (63 - SUB_BITS - 1) * SUB;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder(), sum = new LongAdder();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE), max = new AtomicLong();
+
+    public void record(long ns) {
+        if (ns < 0) ns = 0;
+        buckets.incrementAndGet(bucket(ns));
+        count.increment();
+        sum.add(ns);
+        min.accumulateAndGet(ns, Math::min);
+        max.accumulateAndGet(ns, Math::max);
+    }
+
+    static int bucket(long v) {
+        if (v < LINEAR) return (int) v;
+        int exp = 63 - Long.numberOfLeadingZeros(v);
+        int sub = (int) (v >>> (exp - SUB_BITS)) & (SUB - 1);
+        return LINEAR + (exp - SUB_BITS - 1) * SUB + sub;
+    }
+
+    // largest value that falls into bucket i
+    static long upperBound(int i) {
+        if (i < LINEAR) return i;
+        int exp = (i - LINEAR) / SUB + SUB_BITS + 1, sub = (i - LINEAR) % SUB;
+        long lower = (long) (SUB + sub) << (exp - SUB_BITS);
+        return lower + (1L << (exp - SUB_BITS)) - 1;
+    }
+
+    // q in [0, 1]; 0 when empty
+    public long percentile(double q) {
+        long c = count.sum();
+        if (c == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(q * c)), seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) return Math.min(upperBound(i), max.get());
+        }
+        return max.get();
+    }
+
+    public long getCount() { return count.sum(); }
+    public long getSumNanos() { return sum.sum(); }
+    public long getMinNanos() { return count.sum() == 0 ? 0 : min.get(); }
+    public long getMaxNanos() { return max.get(); }
+    public double getMeanNanos() { long c = count.sum(); return c == 0 ? 0 : (double) sum.sum() / c; }
+}
@@ -1,5 +1,7 @@
 package graph;
 
+import java.lang.management.ManagementFactory;
+
 public interface Metrics {
     void start();
     void stop();
@@ -7,4 +9,12 @@ public interface Metrics {
     long getTimeNanos();
     double getTimeMillis();
     String report();
+
+    // bytes allocated so far by the current thread (0 if the JVM does not expose it)
+    static long threadAllocatedBytes() {
+        java.lang.management.ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        if (mx instanceof com.sun.management.ThreadMXBean)
+            return ((com.sun.management.ThreadMXBean) mx).getThreadAllocatedBytes(Thread.currentThread().getId());
+        return 0;
+    }
 }
@@ -0,0 +1,245 @@
+package graph;
+
+import java.io.IOException;
+import java.lang.reflect.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Owner of off-heap int / double arrays backed by direct ByteBuffers (little-endian,
+ * split into chunks of 2^27 elements so one array can exceed 2 GB). Nothing here is on
+ * the Java heap except the small handles, so the GC neither scans nor copies the data.
+ * close() frees every array of the arena at once instead of waiting for the GC;
+ * afterwards the handles are detached and any access throws instead of touching
+ * freed memory. An arena and its arrays belong to one thread at a time.
+ * mapInts / mapDoubles expose a section of a file as a read-only array instead; the
+ * pages are the OS page cache, and close() unmaps them.
+ *
+ *   try (OffHeapArena arena = new OffHeapArena()) { OffHeapGraph g = ...; }
+ */
+public final class OffHeapArena implements AutoCloseable {
+
+    private static final int CHUNK_BITS = 27, CHUNK = 1 << CHUNK_BITS, MASK = CHUNK - 1;
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        // sun.misc.Unsafe.invokeCleaner frees a direct buffer now (jdk.unsupported, no flags needed)
+        Object u = null;
+        Method m = null;
+        try {
+            Class<?> c = Class.forName("sun.misc.Unsafe");
+            Field f = c.getDeclaredField("theUnsafe");
+            f.setAccessible(true);
+            u = f.get(null);
+            m = c.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            u = null;
+            m = null;   // fall back to GC-driven release
+        }
+        UNSAFE = u;
+        INVOKE_CLEANER = m;
+    }
+
+    private final List<ByteBuffer> buffers = new ArrayList<>();
+    private final List<Ints> ints = new ArrayList<>();
+    private final List<Doubles> doubles = new ArrayList<>();
+    private long allocatedBytes = 0, mappedBytes = 0;
+    private boolean closed = false;
+
+    /** Off-heap int[]; get/set are absolute. */
+    public static final class Ints {
+        private final OffHeapArena arena;
+        private IntBuffer[] chunks;
+        private ByteBuffer[] raw;
+        private final int length;
+
+        private Ints(OffHeapArena arena, IntBuffer[] chunks, ByteBuffer[] raw, int length) {
+            this.arena = arena;
+            this.chunks = chunks;
+            this.raw = raw;
+            this.length = length;
+            arena.ints.add(this);
+        }
+
+        public int length() { return length; }
+        public int get(int i) { return chunks[i >>> CHUNK_BITS].get(i & MASK); }
+        public void set(int i, int v) { chunks[i >>> CHUNK_BITS].put(i & MASK, v); }
+
+        public void fill(int v) {
+            for (int i = 0; i < length; i++) chunks[i >>> CHUNK_BITS].put(i & MASK, v);
+        }
+
+        // first len elements, sharing this array's memory
+        public Ints prefix(int len) {
+            if (len > length) throw new IndexOutOfBoundsException(len + " > " + length);
+            return new Ints(arena, chunks, raw, len);
+        }
+
+        public void copyFrom(int[] src, int len) {
+            for (int done = 0; done < len; ) {
+                int c = done >>> CHUNK_BITS, count = Math.min(len - done, CHUNK);
+                chunks[c].put(0, src, done, count);
+                done += count;
+            }
+        }
+
+        public int[] toArray() {
+            int[] a = new int[length];
+            for (int done = 0; done < length; ) {
+                int c = done >>> CHUNK_BITS, count = Math.min(length - done, CHUNK);
+                chunks[c].get(0, a, done, count);
+                done += count;
+            }
+            return a;
+        }
+
+        // bulk-copies length little-endian ints starting at file position pos; returns the end position
+        long readFrom(FileChannel ch, long pos) throws IOException {
+            return copyChunks(ch, pos, raw, 4L * length);
+        }
+    }
+
+    /** Off-heap double[]; get/set are absolute. */
+    public static final class Doubles {
+        private DoubleBuffer[] chunks;
+        private ByteBuffer[] raw;
+        private final int length;
+
+        private Doubles(OffHeapArena arena, DoubleBuffer[] chunks, ByteBuffer[] raw, int length) {
+            this.chunks = chunks;
+            this.raw = raw;
+            this.length = length;
+            arena.doubles.add(this);
+        }
+
+        public int length() { return length; }
+        public double get(int i) { return chunks[i >>> CHUNK_BITS].get(i & MASK); }
+        public void set(int i, double v) { chunks[i >>> CHUNK_BITS].put(i & MASK, v); }
+
+        public void fill(double v) {
+            for (int i = 0; i < length; i++) chunks[i >>> CHUNK_BITS].put(i & MASK, v);
+        }
+
+        public void copyFrom(double[] src, int len) {
+            for (int done = 0; done < len; ) {
+                int c = done >>> CHUNK_BITS, count = Math.min(len - done, CHUNK);
+                chunks[c].put(0, src, done, count);
+                done += count;
+            }
+        }
+
+        public double[] toArray() {
+            double[] a = new double[length];
+            for (int done = 0; done < length; ) {
+                int c = done >>> CHUNK_BITS, count = Math.min(length - done, CHUNK);
+                chunks[c].get(0, a, done, count);
+                done += count;
+            }
+            return a;
+        }
+
+        long readFrom(FileChannel ch, long pos) throws IOException {
+            return copyChunks(ch, pos, raw, 8L * length);
+        }
+    }
+
+    public Ints ints(int length) {
+        ByteBuffer[] raw = allocate(length, 4);
+        IntBuffer[] chunks = new IntBuffer[raw.length];
+        for (int i = 0; i < raw.length; i++) chunks[i] = raw[i].asIntBuffer();
+        return new Ints(this, chunks, raw, length);
+    }
+
+    public Doubles doubles(int length) {
+        ByteBuffer[] raw = allocate(length, 8);
+        DoubleBuffer[] chunks = new DoubleBuffer[raw.length];
+        for (int i = 0; i < raw.length; i++) chunks[i] = raw[i].asDoubleBuffer();
+        return new Doubles(this, chunks, raw, length);
+    }
+
+    // length little-endian ints of file starting at byte pos; set() throws ReadOnlyBufferException
+    public Ints mapInts(Path file, long pos, int length) throws IOException {
+        ByteBuffer[] raw = map(file, pos, length, 4);
+        IntBuffer[] chunks = new IntBuffer[raw.length];
+        for (int i = 0; i < raw.length; i++) chunks[i] = raw[i].asIntBuffer();
+        return new Ints(this, chunks, raw, length);
+    }
+
+    public Doubles mapDoubles(Path file, long pos, int length) throws IOException {
+        ByteBuffer[] raw = map(file, pos, length, 8);
+        DoubleBuffer[] chunks = new DoubleBuffer[raw.length];
+        for (int i = 0; i < raw.length; i++) chunks[i] = raw[i].asDoubleBuffer();
+        return new Doubles(this, chunks, raw, length);
+    }
+
+    private ByteBuffer[] map(Path file, long pos, int length, int elemBytes) throws IOException {
+        if (closed) throw new IllegalStateException("arena is closed");
+        if (length < 0) throw new IllegalArgumentException("negative length " + length);
+        int n = Math.max(1, (int) (((long) length + CHUNK - 1) >>> CHUNK_BITS));
+        ByteBuffer[] raw = new ByteBuffer[n];
+        // a mapping stays valid after its channel is closed
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (int i = 0; i < n; i++) {
+                long bytes = (long) Math.min(CHUNK, length - i * CHUNK) * elemBytes;
+                raw[i] = ch.map(FileChannel.MapMode.READ_ONLY, pos + (long) i * CHUNK * elemBytes, bytes).order(ByteOrder.LITTLE_ENDIAN);
+                buffers.add(raw[i]);
+                mappedBytes += bytes;
+            }
+        }
+        return raw;
+    }
+
+    private ByteBuffer[] allocate(int length, int elemBytes) {
+        if (closed) throw new IllegalStateException("arena is closed");
+        if (length < 0) throw new IllegalArgumentException("negative length " + length);
+        int n = Math.max(1, (int) (((long) length + CHUNK - 1) >>> CHUNK_BITS));
+        ByteBuffer[] raw = new ByteBuffer[n];
+        for (int i = 0; i < n; i++) {
+            int elems = Math.min(CHUNK, length - i * CHUNK);
+            raw[i] = ByteBuffer.allocateDirect(elems * elemBytes).order(ByteOrder.LITTLE_ENDIAN);
+            buffers.add(raw[i]);
+            allocatedBytes += (long) elems * elemBytes;
+        }
+        return raw;
+    }
+
+    private static long copyChunks(FileChannel ch, long pos, ByteBuffer[] raw, long bytes) throws IOException {
+        for (ByteBuffer dst : raw) {
+            long take = Math.min(bytes, dst.capacity());
+            ByteBuffer d = dst.duplicate();
+            d.clear();
+            if (take > 0) d.put(ch.map(FileChannel.MapMode.READ_ONLY, pos, take));
+            pos += take;
+            bytes -= take;
+        }
+        return pos;
+    }
+
+    public long getAllocatedBytes() { return allocatedBytes; }
+    public long getMappedBytes() { return mappedBytes; }
+    public boolean isClosed() { return closed; }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        // detach the handles first so a stale one fails with an exception, not a crash
+        for (Ints a : ints) { a.chunks = null; a.raw = null; }
+        for (Doubles a : doubles) { a.chunks = null; a.raw = null; }
+        if (INVOKE_CLEANER != null) {
+            for (ByteBuffer b : buffers) {
+                try {
+                    INVOKE_CLEANER.invoke(UNSAFE, b);
+                } catch (ReflectiveOperationException e) {
+                    // leave this one to the GC
+                }
+            }
+        }
+        buffers.clear();
+        ints.clear();
+        doubles.clear();
+    }
+}
@@ -0,0 +1,91 @@
+package graph;
+
+/**
+ * CSR graph whose offsets, targets and weights live in an OffHeapArena: same layout
+ * and edge order as CsrGraph, but the arrays are off-heap and can be freed with the arena.
+ * SCC, TopoSort and DAGSP have overloads that run on it with their scratch state in the
+ * arena too. source is the dataset's source vertex when it came from a dataset, else -1.
+ */
+public final class OffHeapGraph {
+    public final int n, m;
+    public final OffHeapArena.Ints offsets, targets;
+    public final OffHeapArena.Doubles weights;
+    public final int source;
+
+    OffHeapGraph(int n, int m, OffHeapArena.Ints offsets, OffHeapArena.Ints targets, OffHeapArena.Doubles weights, int source) {
+        this.n = n;
+        this.m = m;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.source = source;
+    }
+
+    // off-heap copy of an on-heap graph
+    public static OffHeapGraph of(CsrGraph g, OffHeapArena arena) {
+        int m = g.edgeCount();
+        OffHeapArena.Ints off = arena.ints(g.n + 1), tgt = arena.ints(m);
+        OffHeapArena.Doubles wt = arena.doubles(m);
+        off.copyFrom(g.offsets, g.n + 1);
+        tgt.copyFrom(g.targets, m);
+        wt.copyFrom(g.weights, m);
+        return new OffHeapGraph(g.n, m, off, tgt, wt, -1);
+    }
+
+    // same counting sort as CsrGraph.build, so the adjacency order is identical
+    public static OffHeapGraph build(int n, EdgeList edges, boolean symmetric, int source, OffHeapArena arena) {
+        int m = edges.size(), total = symmetric ? 2 * m : m;
+        OffHeapArena.Ints off = arena.ints(n + 1), tgt = arena.ints(total), cursor = arena.ints(n);
+        OffHeapArena.Doubles wt = arena.doubles(total);
+        off.fill(0);
+        for (int i = 0; i < m; i++) {
+            off.set(edges.from(i) + 1, off.get(edges.from(i) + 1) + 1);
+            if (symmetric) off.set(edges.to(i) + 1, off.get(edges.to(i) + 1) + 1);
+        }
+        for (int u = 0; u < n; u++) {
+            off.set(u + 1, off.get(u + 1) + off.get(u));
+            cursor.set(u, off.get(u));
+        }
+        for (int i = 0; i < m; i++) {
+            int u = edges.from(i), v = edges.to(i);
+            double w = edges.weight(i);
+            int p = cursor.get(u);
+            cursor.set(u, p + 1);
+            tgt.set(p, v); wt.set(p, w);
+            if (symmetric) {
+                p = cursor.get(v);
+                cursor.set(v, p + 1);
+                tgt.set(p, u); wt.set(p, w);
+            }
+        }
+        return new OffHeapGraph(n, total, off, tgt, wt, source);
+    }
+
+    // every stored edge u -> v also as v -> u; each vertex lists its out-edges, then the reversed ones, in CSR order
+    public OffHeapGraph symmetric(OffHeapArena arena) {
+        OffHeapArena.Ints off = arena.ints(n + 1), tgt = arena.ints(2 * m), cursor = arena.ints(n);
+        OffHeapArena.Doubles wt = arena.doubles(2 * m);
+        off.fill(0);
+        for (int u = 0; u < n; u++) off.set(u + 1, off.get(u + 1) + degree(u));
+        for (int e = 0; e < m; e++) off.set(targets.get(e) + 1, off.get(targets.get(e) + 1) + 1);
+        for (int u = 0; u < n; u++) off.set(u + 1, off.get(u + 1) + off.get(u));
+        for (int u = 0; u < n; u++) {
+            int p = off.get(u);
+            for (int e = offsets.get(u), end = offsets.get(u + 1); e < end; e++, p++) { tgt.set(p, targets.get(e)); wt.set(p, weights.get(e)); }
+            cursor.set(u, p);
+        }
+        for (int u = 0; u < n; u++) {
+            for (int e = offsets.get(u), end = offsets.get(u + 1); e < end; e++) {
+                int v = targets.get(e), p = cursor.get(v);
+                cursor.set(v, p + 1);
+                tgt.set(p, u); wt.set(p, weights.get(e));
+            }
+        }
+        return new OffHeapGraph(n, 2 * m, off, tgt, wt, source);
+    }
+
+    public int degree(int u) { return offsets.get(u + 1) - offsets.get(u); }
+
+    // on-heap copy, for handing a (small) graph to the on-heap engines
+    public CsrGraph toCsr() { return CsrGraph.wrap(n, offsets.toArray(), targets.toArray(), weights.toArray()); }
+}
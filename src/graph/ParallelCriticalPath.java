@@ -0,0 +1,151 @@
+package graph;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Critical path analysis (CPM) as a level wavefront on a ForkJoinPool.
+ * The forward pass gives earliest[v], the longest distance from any source. It
+ * matches DAGSP.longestDistances. The backward pass gives latest[v], the latest
+ * time v can be reached without delaying the makespan. slack = latest - earliest,
+ * and zero slack marks the critical vertices.
+ * Vertices of one level (ParallelTopoSort depth) do not depend on each other.
+ * Each pass therefore walks the levels in order and pulls from predecessors or
+ * successors in parallel, with no shared writes.
+ */
+public class ParallelCriticalPath implements Metrics {
+
+    private static final int SEQ_LEVEL = 2048;   // narrower levels run sequentially
+
+    /** Per-vertex schedule; prev[v] is the predecessor on v's longest incoming path (-1 for none). */
+    public static final class Schedule {
+        public final double[] earliest, latest, slack;
+        public final int[] prev;
+        public final double length;   // makespan, -inf for an empty graph
+        public final int end;         // last vertex of the critical path (-1 for an empty graph)
+
+        Schedule(double[] earliest, double[] latest, double[] slack, int[] prev, double length, int end) {
+            this.earliest = earliest;
+            this.latest = latest;
+            this.slack = slack;
+            this.prev = prev;
+            this.length = length;
+            this.end = end;
+        }
+
+        public int[] criticalPath() { return DAGSP.pathTo(prev, end); }
+    }
+
+    private final ForkJoinPool pool;
+
+    // metrics
+    private long startNs = 0, endNs = 0;
+    private long levels = 0;
+    private final LongAdder relaxations = new LongAdder(), edges = new LongAdder();
+
+    public ParallelCriticalPath() { this(ForkJoinPool.commonPool()); }
+
+    public ParallelCriticalPath(ForkJoinPool pool) {
+        this.pool = pool;
+        reset();
+    }
+
+    public Schedule run(CsrGraph g) {
+        int[] level = new int[g.n];
+        int[] order = new ParallelTopoSort(pool).sort(g, level);
+        return run(g, order, level);
+    }
+
+    // order must be level-major, as ParallelTopoSort returns it
+    public Schedule run(CsrGraph g, int[] order, int[] level) {
+        int n = g.n;
+        if (order.length != n) throw new IllegalArgumentException("graph has a cycle");
+        reset();
+        start();
+        CsrGraph gt = g.transpose();
+        int[] bounds = levelBounds(order, level);
+        levels = bounds.length - 1;
+
+        double[] earliest = new double[n], latest = new double[n], slack = new double[n];
+        int[] prev = new int[n];
+        for (int l = 0; l < levels; l++) wave(order, bounds[l], bounds[l + 1], v -> forward(gt, earliest, prev, v));
+
+        int end = DAGSP.longestEnd(earliest);
+        double length = end == -1 ? Double.NEGATIVE_INFINITY : earliest[end];
+        for (int l = (int) levels - 1; l >= 0; l--) wave(order, bounds[l], bounds[l + 1], v -> backward(g, latest, length, v));
+        for (int v = 0; v < n; v++) slack[v] = latest[v] - earliest[v];
+        stop();
+        return new Schedule(earliest, latest, slack, prev, length, end);
+    }
+
+    // start index of every level in order, plus order.length
+    private static int[] levelBounds(int[] order, int[] level) {
+        int[] b = new int[8];
+        int k = 0;
+        for (int i = 0; i < order.length; i++) {
+            if (i > 0 && level[order[i]] == level[order[i - 1]]) continue;
+            if (k == b.length) b = Arrays.copyOf(b, k * 2);
+            b[k++] = i;
+        }
+        if (k == b.length) b = Arrays.copyOf(b, k + 1);
+        b[k++] = order.length;
+        return Arrays.copyOf(b, k);
+    }
+
+    private void wave(int[] order, int lo, int hi, IntConsumer op) {
+        if (hi - lo < SEQ_LEVEL || pool.getParallelism() < 2) {
+            for (int i = lo; i < hi; i++) op.accept(order[i]);
+        } else {
+            pool.submit(() -> IntStream.range(lo, hi).parallel().forEach(i -> op.accept(order[i]))).join();
+        }
+    }
+
+    // earliest[v] = max over u -> v of earliest[u] + w; sources start at 0
+    private void forward(CsrGraph gt, double[] earliest, int[] prev, int v) {
+        int[] off = gt.offsets, src = gt.targets;
+        double[] wt = gt.weights;
+        double best = off[v] == off[v + 1] ? 0 : Double.NEGATIVE_INFINITY;
+        int p = -1;
+        long better = 0;
+        for (int e = off[v], end = off[v + 1]; e < end; e++) {
+            double d = earliest[src[e]] + wt[e];
+            if (d > best) { best = d; p = src[e]; better++; }
+        }
+        earliest[v] = best;
+        prev[v] = p;
+        relaxations.add(better);
+        edges.add(off[v + 1] - off[v]);
+    }
+
+    // latest[v] = min over v -> s of latest[s] - w; sinks end at the makespan
+    private void backward(CsrGraph g, double[] latest, double length, int v) {
+        int[] off = g.offsets, tgt = g.targets;
+        double[] wt = g.weights;
+        double best = off[v] == off[v + 1] ? length : Double.POSITIVE_INFINITY;
+        for (int e = off[v], end = off[v + 1]; e < end; e++) best = Math.min(best, latest[tgt[e]] - wt[e]);
+        latest[v] = best;
+        edges.add(off[v + 1] - off[v]);
+    }
+
+    // Metrics
+    @Override public void start() { startNs = System.nanoTime(); }
+    @Override public void stop() { endNs = System.nanoTime(); }
+    @Override public void reset() { levels = 0; relaxations.reset(); edges.reset(); startNs = endNs = 0; }
+    @Override public long getTimeNanos() { return endNs - startNs; }
+    @Override public double getTimeMillis() { return (endNs - startNs) / 1_000_000.0; }
+
+    @Override
+    public String report() {
+        return String.format("CriticalPath(levels=%d relax=%d edges=%d time=%.3fms)",
+                levels, relaxations.sum(), edges.sum(), getTimeMillis());
+    }
+
+    // getters
+    public long getLevels() { return levels; }
+    public long getRelaxations() { return relaxations.sum(); }
+    public long getEdgesProcessed() { return edges.sum(); }
+    public double getTimeMs() { return getTimeMillis(); }
+}
@@ -0,0 +1,246 @@
+package graph;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.stream.IntStream;
+
+/**
+ * Parallel SCC: forward-backward decomposition with trimming on a ForkJoinPool.
+ * Each task owns a vertex set with a unique label; it trims vertices without an in- or
+ * out-neighbor in the set (singleton SCCs), then searches forward and backward from a
+ * pivot. FW and BW intersect in an SCC; FW\SCC, BW\SCC and the rest become new tasks.
+ * Large BFS frontiers are expanded in parallel; vertices are claimed by CAS on the label.
+ * The partition is then numbered exactly as SCC (Tarjan) numbers it, members in Tarjan's
+ * pop order, so results do not depend on thread scheduling or on which engine ran.
+ */
+public class ParallelSCC implements SccEngine {
+
+    private static final int DONE = -1, NONE = -2;
+    private static final int SEQ_FRONTIER = 2048;   // smaller frontiers are expanded sequentially
+    private static final int SEQ_TRIM = 8192;       // smaller vertex sets are trimmed sequentially
+
+    private final ForkJoinPool pool;
+    private CsrGraph g, gt;
+    private AtomicIntegerArray label;
+    private int[] rep;
+    private final AtomicInteger nextLabel = new AtomicInteger();
+
+    // metrics
+    private long startNs = 0, endNs = 0;
+    private final LongAdder visits = new LongAdder(), edges = new LongAdder();
+    private final LongAdder trimmed = new LongAdder(), pivots = new LongAdder();
+
+    public ParallelSCC() { this(ForkJoinPool.commonPool()); }
+
+    public ParallelSCC(ForkJoinPool pool) {
+        this.pool = pool;
+        reset();
+    }
+
+    @Override
+    public Components components(CsrGraph graph) {
+        reset();
+        start();
+        g = graph;
+        gt = graph.transpose();
+        int n = graph.n;
+        label = new AtomicIntegerArray(n);
+        rep = new int[n];
+        nextLabel.set(1);
+        int[] all = new int[n];
+        for (int i = 0; i < n; i++) all[i] = i;
+        if (n > 0) pool.invoke(new Split(all, 0));
+        Components result = number();
+        stop();
+        g = gt = null;
+        label = null;
+        rep = null;
+        return result;
+    }
+
+    // solves one labelled vertex set; keeps the largest sub-problem in the loop so task nesting stays shallow
+    private final class Split extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private int[] verts;
+        private int lab;
+
+        Split(int[] verts, int lab) { this.verts = verts; this.lab = lab; }
+
+        @Override
+        protected void compute() {
+            List<Split> forked = new ArrayList<>();
+            while (true) {
+                int[] vs = trim(verts, lab);
+                if (vs.length == 0) break;
+                int pivot = vs[0];
+                pivots.increment();
+                int fw = nextLabel.getAndIncrement(), bw = nextLabel.getAndIncrement();
+
+                // forward: lab -> fw; backward: fw -> DONE (the SCC), lab -> bw
+                search(g, pivot, lab, fw, NONE, NONE, pivot);
+                search(gt, pivot, fw, DONE, lab, bw, pivot);
+
+                int[][] parts = partition(vs, fw, bw, lab);
+                int[] labs = {fw, bw, lab};
+                int largest = 0;
+                for (int i = 1; i < 3; i++) if (parts[i].length > parts[largest].length) largest = i;
+                for (int i = 0; i < 3; i++) {
+                    if (i == largest || parts[i].length == 0) continue;
+                    Split s = new Split(parts[i], labs[i]);
+                    s.fork();
+                    forked.add(s);
+                }
+                verts = parts[largest];
+                lab = labs[largest];
+                if (verts.length == 0) break;
+            }
+            for (Split s : forked) s.join();
+        }
+    }
+
+    // repeatedly removes vertices with no in- or no out-neighbor carrying the same label
+    private int[] trim(int[] vs, int lab) {
+        int[] cur = vs;
+        while (cur.length > 0) {
+            int removed;
+            if (cur.length < SEQ_TRIM) {
+                removed = 0;
+                for (int v : cur) removed += trimOne(v, lab);
+            } else {
+                final int[] c = cur;
+                removed = IntStream.range(0, c.length).parallel().map(i -> trimOne(c[i], lab)).sum();
+            }
+            if (removed == 0) break;
+            cur = filter(cur, lab);
+        }
+        return cur;
+    }
+
+    private int trimOne(int v, int lab) {
+        if (label.get(v) != lab) return 0;
+        if (hasNeighbor(g, v, lab) && hasNeighbor(gt, v, lab)) return 0;
+        rep[v] = v;
+        label.set(v, DONE);
+        trimmed.increment();
+        return 1;
+    }
+
+    private boolean hasNeighbor(CsrGraph graph, int v, int lab) {
+        int[] off = graph.offsets, tgt = graph.targets;
+        long scanned = 0;
+        boolean found = false;
+        for (int e = off[v]; e < off[v + 1]; e++) {
+            scanned++;
+            if (label.get(tgt[e]) == lab) { found = true; break; }
+        }
+        edges.add(scanned);
+        return found;
+    }
+
+    private int[] filter(int[] vs, int lab) {
+        if (vs.length < SEQ_TRIM) {
+            int k = 0;
+            int[] out = new int[vs.length];
+            for (int v : vs) if (label.get(v) == lab) out[k++] = v;
+            return Arrays.copyOf(out, k);
+        }
+        return Arrays.stream(vs).parallel().filter(v -> label.get(v) == lab).toArray();
+    }
+
+    private int[][] partition(int[] vs, int fw, int bw, int lab) {
+        int[][] out = new int[3][vs.length];
+        int[] k = new int[3];
+        for (int v : vs) {
+            int l = label.get(v);
+            if (l == fw) out[0][k[0]++] = v;
+            else if (l == bw) out[1][k[1]++] = v;
+            else if (l == lab) out[2][k[2]++] = v;
+        }
+        for (int i = 0; i < 3; i++) out[i] = Arrays.copyOf(out[i], k[i]);
+        return out;
+    }
+
+    /**
+     * Level-synchronous BFS from pivot. A vertex is entered by relabelling it
+     * from1 -> to1 (recording the pivot as its representative when to1 is DONE)
+     * or from2 -> to2.
+     */
+    private void search(CsrGraph graph, int pivot, int from1, int to1, int from2, int to2, int r) {
+        if (!claim(pivot, from1, to1, from2, to2, r)) return;
+        visits.increment();
+        int[] frontier = {pivot};
+        while (frontier.length > 0) {
+            if (frontier.length < SEQ_FRONTIER) {
+                frontier = expand(graph, frontier, 0, frontier.length, from1, to1, from2, to2, r);
+            } else {
+                final int[] f = frontier;
+                int chunks = Math.min(pool.getParallelism() * 4, (f.length + SEQ_FRONTIER - 1) / SEQ_FRONTIER);
+                int[][] next = IntStream.range(0, chunks).parallel()
+                        .mapToObj(c -> expand(graph, f, (int) ((long) f.length * c / chunks),
+                                (int) ((long) f.length * (c + 1) / chunks), from1, to1, from2, to2, r))
+                        .toArray(int[][]::new);
+                int total = 0;
+                for (int[] a : next) total += a.length;
+                frontier = new int[total];
+                int p = 0;
+                for (int[] a : next) { System.arraycopy(a, 0, frontier, p, a.length); p += a.length; }
+            }
+        }
+    }
+
+    private int[] expand(CsrGraph graph, int[] frontier, int lo, int hi, int from1, int to1, int from2, int to2, int r) {
+        int[] off = graph.offsets, tgt = graph.targets;
+        int[] next = new int[16];
+        int k = 0;
+        long scanned = 0;
+        for (int i = lo; i < hi; i++) {
+            int v = frontier[i];
+            for (int e = off[v]; e < off[v + 1]; e++) {
+                scanned++;
+                int w = tgt[e];
+                if (claim(w, from1, to1, from2, to2, r)) {
+                    if (k == next.length) next = Arrays.copyOf(next, k * 2);
+                    next[k++] = w;
+                }
+            }
+        }
+        edges.add(scanned);
+        visits.add(k);
+        return Arrays.copyOf(next, k);
+    }
+
+    private boolean claim(int w, int from1, int to1, int from2, int to2, int r) {
+        if (label.compareAndSet(w, from1, to1)) {
+            if (to1 == DONE) rep[w] = r;
+            return true;
+        }
+        return from2 != NONE && label.compareAndSet(w, from2, to2);
+    }
+
+    // rep[v] names v's component; number it exactly as Tarjan would
+    private Components number() {
+        return Components.inTarjanOrder(g, rep);
+    }
+
+    // Metrics
+    @Override public void start() { startNs = System.nanoTime(); }
+    @Override public void stop() { endNs = System.nanoTime(); }
+    @Override public void reset() { visits.reset(); edges.reset(); trimmed.reset(); pivots.reset(); startNs = endNs = 0; }
+    @Override public long getTimeNanos() { return endNs - startNs; }
+    @Override public double getTimeMillis() { return (endNs - startNs) / 1_000_000.0; }
+
+    @Override
+    public String report() {
+        return String.format("ParallelSCC(visits=%d edges=%d trimmed=%d pivots=%d time=%.3fms)",
+                visits.sum(), edges.sum(), trimmed.sum(), pivots.sum(), getTimeMillis());
+    }
+
+    // getters
+    @Override public long getDfsVisits() { return visits.sum(); }
+    @Override public long getEdgesProcessed() { return edges.sum(); }
+    public long getTrimmed() { return trimmed.sum(); }
+    public long getPivots() { return pivots.sum(); }
+    @Override public double getTimeMs() { return getTimeMillis(); }
+}
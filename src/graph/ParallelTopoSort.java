@@ -0,0 +1,132 @@
+package graph;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.stream.IntStream;
+
+/**
+ * Level-synchronous Kahn on a ForkJoinPool. The frontier holds every vertex whose
+ * in-degree has reached zero; it is split into chunks that decrement in-degrees
+ * atomically and collect newly freed vertices into their own next-frontier buffers.
+ * Each level is sorted, so the order is deterministic: level by level, ascending vertex
+ * within a level. level[v] is the depth of v (longest edge count from a source), -1 if
+ * v is on or behind a cycle. pushes/pops count the same vertices as TopoSort.
+ */
+public class ParallelTopoSort implements Metrics {
+
+    private static final int SEQ_FRONTIER = 2048;   // smaller frontiers are expanded sequentially
+
+    private final ForkJoinPool pool;
+
+    // metrics
+    private long startNs = 0, endNs = 0;
+    private long pushes = 0, pops = 0, levels = 0, maxWidth = 0;
+    private final LongAdder edges = new LongAdder();
+
+    public ParallelTopoSort() { this(ForkJoinPool.commonPool()); }
+
+    public ParallelTopoSort(ForkJoinPool pool) {
+        this.pool = pool;
+        reset();
+    }
+
+    public int[] sort(CsrGraph g) { return sort(g, new int[g.n]); }
+
+    // fills level (length >= n) with each vertex's depth
+    public int[] sort(CsrGraph g, int[] level) {
+        reset();
+        start();
+        int n = g.n;
+        int[] tgt = g.targets;
+        int[] counts = new int[n];
+        for (int e = 0, m = g.edgeCount(); e < m; e++) counts[tgt[e]]++;
+        AtomicIntegerArray indeg = new AtomicIntegerArray(counts);
+        Arrays.fill(level, 0, n, -1);
+
+        int[] order = new int[n];
+        int tail = 0;
+        int[] frontier = new int[16];
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            if (counts[i] != 0) continue;
+            if (k == frontier.length) frontier = Arrays.copyOf(frontier, k * 2);
+            frontier[k++] = i;
+        }
+        frontier = Arrays.copyOf(frontier, k);
+
+        int depth = 0;
+        while (frontier.length > 0) {
+            for (int v : frontier) level[v] = depth;
+            System.arraycopy(frontier, 0, order, tail, frontier.length);
+            tail += frontier.length;
+            pushes += frontier.length;
+            pops += frontier.length;
+            maxWidth = Math.max(maxWidth, frontier.length);
+            levels++;
+            depth++;
+
+            if (frontier.length < SEQ_FRONTIER || pool.getParallelism() < 2) {
+                frontier = expand(g, indeg, frontier, 0, frontier.length);
+                Arrays.sort(frontier);
+            } else {
+                final int[] f = frontier;
+                int chunks = Math.min(pool.getParallelism() * 4, (f.length + SEQ_FRONTIER - 1) / SEQ_FRONTIER);
+                int[][] next = pool.submit(() -> IntStream.range(0, chunks).parallel()
+                        .mapToObj(c -> expand(g, indeg, f, (int) ((long) f.length * c / chunks),
+                                (int) ((long) f.length * (c + 1) / chunks)))
+                        .toArray(int[][]::new)).join();
+                int total = 0;
+                for (int[] a : next) total += a.length;
+                frontier = new int[total];
+                int p = 0;
+                for (int[] a : next) { System.arraycopy(a, 0, frontier, p, a.length); p += a.length; }
+                Arrays.parallelSort(frontier);
+            }
+        }
+        stop();
+        return tail == n ? order : Arrays.copyOf(order, tail);
+    }
+
+    // frontier[lo, hi): the vertices whose in-degree this chunk brings to zero
+    private int[] expand(CsrGraph g, AtomicIntegerArray indeg, int[] frontier, int lo, int hi) {
+        int[] off = g.offsets, tgt = g.targets;
+        int[] next = new int[16];
+        int k = 0;
+        long scanned = 0;
+        for (int i = lo; i < hi; i++) {
+            int u = frontier[i];
+            for (int e = off[u], end = off[u + 1]; e < end; e++) {
+                scanned++;
+                int v = tgt[e];
+                if (indeg.decrementAndGet(v) == 0) {
+                    if (k == next.length) next = Arrays.copyOf(next, k * 2);
+                    next[k++] = v;
+                }
+            }
+        }
+        edges.add(scanned);
+        return Arrays.copyOf(next, k);
+    }
+
+    // Metrics
+    @Override public void start() { startNs = System.nanoTime(); }
+    @Override public void stop() { endNs = System.nanoTime(); }
+    @Override public void reset() { pushes = pops = levels = maxWidth = 0; edges.reset(); startNs = endNs = 0; }
+    @Override public long getTimeNanos() { return endNs - startNs; }
+    @Override public double getTimeMillis() { return (endNs - startNs) / 1_000_000.0; }
+
+    @Override
+    public String report() {
+        return String.format("ParallelTopo(pushes=%d pops=%d levels=%d maxWidth=%d edges=%d time=%.3fms)",
+                pushes, pops, levels, maxWidth, edges.sum(), getTimeMillis());
+    }
+
+    // getters
+    public long getPushes() { return pushes; }
+    public long getPops() { return pops; }
+    public long getLevels() { return levels; }
+    public long getMaxWidth() { return maxWidth; }
+    public long getEdgesProcessed() { return edges.sum(); }
+    public double getTimeMs() { return getTimeMillis(); }
+}
@@ -0,0 +1,225 @@
+package graph;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.*;
+
+/**
+ * In-process path query engine. A graph is loaded once and its SCC components,
+ * condensation and topological order are cached; queries then only run the DAGSP
+ * sweep; pair queries only sweep the part of the topo order between source and target that
+ * can reach the target (DAGSP.shortestPath), after a ReachabilityIndex check has rejected
+ * unreachable pairs without any relaxation. exactShortest gives true vertex-level distances
+ * through cyclic components (HybridShortestPaths). Cached graphs are evicted least-recently-used once their estimated size
+ * exceeds the byte budget (the most recent graph is always kept).
+ * Vertices in queries are original vertex ids; paths are condensation component ids,
+ * as in the batch _result.json, except for exactShortest whose paths are vertex ids. Thread-safe.
+ */
+public class PathQueryEngine {
+
+    /** Everything a query needs about one graph. */
+    public static final class CachedGraph {
+        public final Path file;
+        public final int n;
+        public final CsrGraph graph;       // vertex level, for exactShortest
+        public final Components comps;
+        public final CsrGraph cond;
+        public final int[] topoOrder;
+        public final int[] topoPos;        // inverse of topoOrder
+        public final CsrGraph condReverse; // transpose of cond, for the backward pruning search
+        public final ReachabilityIndex reach;
+        final long bytes;
+        private volatile PathAnswer critical;
+
+        CachedGraph(Path file, int n, CsrGraph graph, Components comps, CsrGraph cond, int[] topoOrder) {
+            this.file = file;
+            this.n = n;
+            this.graph = graph;
+            this.comps = comps;
+            this.cond = cond;
+            this.topoOrder = topoOrder;
+            this.topoPos = new int[topoOrder.length];
+            for (int i = 0; i < topoOrder.length; i++) topoPos[topoOrder[i]] = i;
+            this.condReverse = cond.transpose();
+            this.reach = new ReachabilityIndex(cond, topoOrder);
+            this.bytes = 4L * (graph.offsets.length + graph.targets.length) + 8L * graph.weights.length
+                    + 4L * (comps.comp.length + comps.compStart.length + comps.cid.length)
+                    + 2 * (4L * (cond.offsets.length + cond.targets.length) + 8L * cond.weights.length)
+                    + 8L * topoOrder.length + reach.getBytes() + 256;
+        }
+
+        int component(int v) {
+            if (v < 0 || v >= n) throw new IllegalArgumentException("vertex " + v + " out of range [0, " + n + ")");
+            return comps.cid[v];
+        }
+    }
+
+    /** Length (+inf / -inf when there is none) and component path of one answer. */
+    public static final class PathAnswer {
+        public final double length;
+        public final int[] path;
+
+        PathAnswer(double length, int[] path) { this.length = length; this.path = path; }
+    }
+
+    /** Latency counters of one query type. */
+    public static final class QueryStats {
+        private final LongAdder count = new LongAdder(), totalNs = new LongAdder();
+        private final AtomicLong maxNs = new AtomicLong();
+
+        void record(long ns) {
+            count.increment();
+            totalNs.add(ns);
+            maxNs.accumulateAndGet(ns, Math::max);
+        }
+
+        public long getCount() { return count.sum(); }
+        public double getMeanMs() { long c = count.sum(); return c == 0 ? 0 : totalNs.sum() / 1e6 / c; }
+        public double getMaxMs() { return maxNs.get() / 1e6; }
+    }
+
+    private final long maxBytes;
+    private final LinkedHashMap<Path, CachedGraph> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes = 0;
+    private final LongAdder hits = new LongAdder(), misses = new LongAdder(), evictions = new LongAdder();
+    // pair queries: relaxations done and topo-order vertices the pruning skipped
+    private final LongAdder pairRelaxations = new LongAdder(), pairPruned = new LongAdder(), pairRejected = new LongAdder();
+    private final Map<String, QueryStats> stats = new ConcurrentHashMap<>();
+
+    public PathQueryEngine(long maxBytes) { this.maxBytes = maxBytes; }
+
+    public CachedGraph graph(Path file) throws IOException {
+        Path key = file.toAbsolutePath().normalize();
+        synchronized (this) {
+            CachedGraph g = cache.get(key);
+            if (g != null) { hits.increment(); return g; }
+        }
+        misses.increment();
+        long t0 = System.nanoTime();
+        CachedGraph loaded = load(key);
+        stats("load").record(System.nanoTime() - t0);
+        synchronized (this) {
+            // another thread may have loaded it meanwhile; keep the first copy
+            CachedGraph g = cache.get(key);
+            if (g != null) return g;
+            cache.put(key, loaded);
+            cachedBytes += loaded.bytes;
+            Iterator<CachedGraph> it = cache.values().iterator();
+            while (cachedBytes > maxBytes && cache.size() > 1) {
+                CachedGraph old = it.next();
+                it.remove();
+                cachedBytes -= old.bytes;
+                evictions.increment();
+            }
+            return loaded;
+        }
+    }
+
+    private static CachedGraph load(Path file) throws IOException {
+        Dataset data = DatasetReader.forFile(file).read(file);
+        CsrGraph graph = data.sccGraph();
+        Components comps = SccEngine.forGraph(graph, Workspace.local()).components(graph);
+        CsrGraph cond = new Condensation().build(comps, data);
+        int[] order = new TopoSort(Workspace.local()).sort(cond);
+        return new CachedGraph(file, data.n, graph, comps, cond, order);
+    }
+
+    // distances from src's component to every component (+inf when unreachable)
+    public double[] shortest(Path file, int src) throws IOException {
+        long t0 = System.nanoTime();
+        CachedGraph g = graph(file);
+        double[] d = new DAGSP(Workspace.local()).shortestDistances(g.cond, g.component(src), g.topoOrder, new int[g.cond.n]);
+        stats("shortest").record(System.nanoTime() - t0);
+        return d;
+    }
+
+    public PathAnswer shortest(Path file, int src, int dst) throws IOException {
+        long t0 = System.nanoTime();
+        CachedGraph g = graph(file);
+        int s = g.component(src), t = g.component(dst);
+        if (!g.reach.reaches(s, t)) {
+            pairRejected.increment();
+            stats("shortest_pair").record(System.nanoTime() - t0);
+            return new PathAnswer(Double.POSITIVE_INFINITY, new int[0]);
+        }
+        DAGSP dagsp = new DAGSP(Workspace.local());
+        PathResult r = dagsp.shortestPath(g.cond, s, t, g.topoOrder, g.topoPos, g.condReverse);
+        PathAnswer a = new PathAnswer(r.distanceTo(t), r.pathTo(t));
+        pairRelaxations.add(dagsp.getRelaxations());
+        pairPruned.add(dagsp.getPruned());
+        stats("shortest_pair").record(System.nanoTime() - t0);
+        return a;
+    }
+
+    // true vertex-level distances from src (+inf when unreachable); intra-component weights count
+    public double[] exactShortest(Path file, int src) throws IOException {
+        long t0 = System.nanoTime();
+        CachedGraph g = graph(file);
+        g.component(src);
+        double[] d = new HybridShortestPaths().run(g.graph, g.comps, g.topoOrder, src).distances();
+        stats("exact_shortest").record(System.nanoTime() - t0);
+        return d;
+    }
+
+    // vertex-level path src -> dst
+    public PathAnswer exactShortest(Path file, int src, int dst) throws IOException {
+        long t0 = System.nanoTime();
+        CachedGraph g = graph(file);
+        PathAnswer a;
+        if (!g.reach.reaches(g.component(src), g.component(dst))) {
+            pairRejected.increment();
+            a = new PathAnswer(Double.POSITIVE_INFINITY, new int[0]);
+        } else {
+            PathResult r = new HybridShortestPaths().run(g.graph, g.comps, g.topoOrder, src);
+            a = new PathAnswer(r.distanceTo(dst), r.pathTo(dst));
+        }
+        stats("exact_shortest_pair").record(System.nanoTime() - t0);
+        return a;
+    }
+
+    // whether dst is reachable from src (true when they share a component)
+    public boolean reaches(Path file, int src, int dst) throws IOException {
+        long t0 = System.nanoTime();
+        CachedGraph g = graph(file);
+        boolean r = g.reach.reaches(g.component(src), g.component(dst));
+        stats("reaches").record(System.nanoTime() - t0);
+        return r;
+    }
+
+    // critical path of the condensation; computed once per cached graph
+    public PathAnswer critical(Path file) throws IOException {
+        long t0 = System.nanoTime();
+        CachedGraph g = graph(file);
+        PathAnswer a = g.critical;
+        if (a == null) {
+            PathResult r = new DAGSP(Workspace.local()).longestPaths(g.cond, g.topoOrder);
+            a = new PathAnswer(r.length(), r.pathTo(r.target()));
+            g.critical = a;
+        }
+        stats("critical").record(System.nanoTime() - t0);
+        return a;
+    }
+
+    private QueryStats stats(String op) { return stats.computeIfAbsent(op, k -> new QueryStats()); }
+
+    public Map<String, QueryStats> getQueryStats() { return new TreeMap<>(stats); }
+    public long getHits() { return hits.sum(); }
+    public long getMisses() { return misses.sum(); }
+    public long getEvictions() { return evictions.sum(); }
+    public long getPairRelaxations() { return pairRelaxations.sum(); }
+    public long getPairPruned() { return pairPruned.sum(); }
+    public long getPairRejected() { return pairRejected.sum(); }
+    public synchronized int getCachedGraphs() { return cache.size(); }
+    public synchronized long getCachedBytes() { return cachedBytes; }
+
+    public String report() {
+        StringBuilder sb = new StringBuilder(String.format("QueryEngine(graphs=%d bytes=%d hits=%d misses=%d evictions=%d pairRelax=%d pairPruned=%d pairRejected=%d)",
+                getCachedGraphs(), getCachedBytes(), getHits(), getMisses(), getEvictions(), getPairRelaxations(), getPairPruned(), getPairRejected()));
+        for (Map.Entry<String, QueryStats> e : getQueryStats().entrySet())
+            sb.append(String.format(" %s(n=%d mean=%.3fms max=%.3fms)", e.getKey(),
+                    e.getValue().getCount(), e.getValue().getMeanMs(), e.getValue().getMaxMs()));
+        return sb.toString();
+    }
+}
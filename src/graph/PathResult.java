@@ -0,0 +1,105 @@
+package graph;
+
+import java.util.*;
+
+/**
+ * Result of one DAGSP sweep: the distance array and predecessor array, unboxed.
+ * distanceTo is O(1); paths are only walked when pathTo asks for one.
+ * Unreached vertices are +inf (shortest) or -inf (longest), prev is -1 for none.
+ * target() is the vertex the batch output reports the path to: the last reachable
+ * vertex in topo order (shortest), or the end of the critical path (longest).
+ * A point-to-point result borrows its arrays from a Workspace: only the entries stamped
+ * during its query are read, and it is invalid once that workspace runs another one.
+ */
+public final class PathResult {
+
+    /** Receives (vertex, distance) pairs without boxing. */
+    public interface DistanceConsumer { void accept(int v, double d); }
+
+    private final double[] dist;
+    private final int[] prev;
+    private final int n, target;
+    private final boolean longest;
+    // workspace-backed: entries of dist / prev are only set where touched is marked
+    private final Workspace.Stamps touched;
+    private final int epoch;
+
+    PathResult(double[] dist, int[] prev, int target, boolean longest) {
+        this(dist, prev, dist.length, target, longest, null);
+    }
+
+    PathResult(double[] dist, int[] prev, int n, int target, boolean longest, Workspace.Stamps touched) {
+        this.dist = dist;
+        this.prev = prev;
+        this.n = n;
+        this.target = target;
+        this.longest = longest;
+        this.touched = touched;
+        this.epoch = touched == null ? 0 : touched.epoch();
+    }
+
+    private boolean touched(int v) {
+        if (touched.epoch() != epoch) throw new IllegalStateException("workspace reused by a later query");
+        return touched.isMarked(v);
+    }
+
+    public int size() { return n; }
+    public boolean isLongest() { return longest; }
+
+    public double distanceTo(int v) {
+        if (touched != null && !touched(v)) return longest ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        return dist[v];
+    }
+
+    public boolean isReachable(int v) { return !Double.isInfinite(distanceTo(v)); }
+    public int predecessor(int v) { return touched != null && !touched(v) ? -1 : prev[v]; }
+    public int target() { return target; }
+
+    // length to target(); +inf / -inf when there is none
+    public double length() {
+        if (target == -1) return longest ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        return distanceTo(target);
+    }
+
+    // vertices from the source (or critical path start) to v; empty when v is unreachable
+    public int[] pathTo(int v) { return v == -1 || !isReachable(v) ? new int[0] : DAGSP.pathTo(prev, v); }
+
+    // highest-numbered reachable vertex, -1 if none
+    public int lastReachable() {
+        for (int i = n - 1; i >= 0; i--) if (isReachable(i)) return i;
+        return -1;
+    }
+
+    // reachable vertices in ascending order
+    public void forEachReachable(DistanceConsumer c) {
+        for (int v = 0; v < n; v++) if (isReachable(v)) c.accept(v, distanceTo(v));
+    }
+
+    // backing arrays (not copied); a workspace-backed result returns n-sized copies instead
+    public double[] distances() {
+        if (touched == null) return dist;
+        double[] d = new double[n];
+        for (int v = 0; v < n; v++) d[v] = distanceTo(v);
+        return d;
+    }
+
+    public int[] predecessors() {
+        if (touched == null) return prev;
+        int[] p = new int[n];
+        for (int v = 0; v < n; v++) p[v] = predecessor(v);
+        return p;
+    }
+
+    // the old Map view: "distances" (reachable only), "length" (longest only) and "path" to target()
+    public Map<String, Object> toMap() {
+        Map<Integer, Double> reachable = new LinkedHashMap<>();
+        forEachReachable(reachable::put);
+        Map<String, Object> r = new LinkedHashMap<>();
+        r.put("distances", reachable);
+        if (longest) r.put("length", target == -1 ? null : distanceTo(target));
+        List<Integer> path = new ArrayList<>();
+        for (int v : pathTo(target)) path.add(v);
+        r.put("path", path);
+        return r;
+    }
+}
@@ -0,0 +1,186 @@
+package graph;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * GRAIL-style reachability index over a DAG (normally the condensation): k interval labels
+ * [low, post] per vertex, each from a DFS with randomized root and child order, plus the
+ * topological position. If u reaches v then v's interval nests in u's in every labeling and
+ * pos[u] < pos[v], so a failed test is an exact "no" in O(k). Pairs that pass every test fall
+ * back to a DFS from u that only descends into vertices still passing the test against v.
+ * Labels are deterministic for a given seed. Read-only once built and safe to share between
+ * threads; each thread gets its own search scratch.
+ */
+public final class ReachabilityIndex implements Metrics {
+
+    public static final int DEFAULT_LABELS = 3;
+
+    private final int n, k;
+    private final int[] pos;
+    private final int[] low, post;   // label i of vertex v at v * k + i
+    private final CsrGraph dag;
+    private final ThreadLocal<Scratch> scratch;
+
+    // metrics
+    private long startNs = 0, endNs = 0;
+    private final LongAdder queries = new LongAdder(), labelCuts = new LongAdder();
+    private final LongAdder searches = new LongAdder(), searchVisits = new LongAdder();
+
+    /** Per-thread DFS state; visited is stamped with epoch so a search never clears it. */
+    private static final class Scratch {
+        final int[] stamp, stack;
+        int epoch = 0;
+
+        Scratch(int n) { stamp = new int[n]; stack = new int[n]; }
+    }
+
+    public ReachabilityIndex(CsrGraph dag, int[] topoOrder) { this(dag, topoOrder, DEFAULT_LABELS, 42L); }
+
+    // topoOrder must cover every vertex (throws IllegalArgumentException on a cycle)
+    public ReachabilityIndex(CsrGraph dag, int[] topoOrder, int labels, long seed) {
+        if (labels < 1) throw new IllegalArgumentException("need at least one label");
+        if (topoOrder.length != dag.n) throw new IllegalArgumentException("graph has a cycle");
+        start();
+        this.dag = dag;
+        this.n = dag.n;
+        this.k = labels;
+        this.pos = new int[n];
+        for (int i = 0; i < n; i++) pos[topoOrder[i]] = i;
+        this.low = new int[n * k];
+        this.post = new int[n * k];
+        int[] roots = roots(dag);
+        Random rnd = new Random(seed);
+        int[] stack = new int[n], cursor = new int[n], first = new int[n];
+        for (int i = 0; i < k; i++) label(i, roots, rnd, stack, cursor, first);
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(n));
+        stop();
+    }
+
+    private static int[] roots(CsrGraph g) {
+        int[] indeg = new int[g.n];
+        for (int e = 0, m = g.edgeCount(); e < m; e++) indeg[g.targets[e]]++;
+        int count = 0;
+        for (int v = 0; v < g.n; v++) if (indeg[v] == 0) count++;
+        int[] roots = new int[count];
+        for (int v = 0, r = 0; v < g.n; v++) if (indeg[v] == 0) roots[r++] = v;
+        return roots;
+    }
+
+    // one labeling: post-order numbers from 1, low = min post over the vertex and its descendants
+    private void label(int i, int[] roots, Random rnd, int[] stack, int[] cursor, int[] first) {
+        int[] off = dag.offsets, tgt = dag.targets;
+        for (int r = roots.length - 1; r > 0; r--) {
+            int j = rnd.nextInt(r + 1), t = roots[r];
+            roots[r] = roots[j];
+            roots[j] = t;
+        }
+        // each vertex starts its child scan at a random edge and wraps around
+        for (int v = 0; v < n; v++) {
+            int deg = off[v + 1] - off[v];
+            first[v] = deg == 0 ? 0 : rnd.nextInt(deg);
+        }
+        for (int v = 0; v < n; v++) { low[v * k + i] = 0; post[v * k + i] = 0; }
+        int counter = 0;
+        for (int r : roots) {
+            int sp = 0;
+            low[r * k + i] = Integer.MAX_VALUE;
+            stack[sp] = r; cursor[sp] = 0; sp++;
+            while (sp > 0) {
+                int u = stack[sp - 1], deg = off[u + 1] - off[u];
+                if (cursor[sp - 1] < deg) {
+                    int c = cursor[sp - 1]++;
+                    int w = tgt[off[u] + (first[u] + c) % deg];
+                    int lw = low[w * k + i];
+                    if (lw == 0) {
+                        low[w * k + i] = Integer.MAX_VALUE;   // on the stack
+                        stack[sp] = w; cursor[sp] = 0; sp++;
+                    } else if (post[w * k + i] == 0) {
+                        throw new IllegalArgumentException("graph has a cycle");
+                    } else if (lw < low[u * k + i]) {
+                        low[u * k + i] = lw;
+                    }
+                    continue;
+                }
+                post[u * k + i] = ++counter;
+                if (counter < low[u * k + i]) low[u * k + i] = counter;
+                sp--;
+                if (sp > 0) {
+                    int p = stack[sp - 1];
+                    if (low[u * k + i] < low[p * k + i]) low[p * k + i] = low[u * k + i];
+                }
+            }
+        }
+    }
+
+    // v's intervals nest in u's in every labeling (necessary for u ->* v)
+    private boolean nests(int u, int v) {
+        for (int i = 0, bu = u * k, bv = v * k; i < k; i++)
+            if (low[bv + i] < low[bu + i] || post[bv + i] > post[bu + i]) return false;
+        return true;
+    }
+
+    /** true when u = v or there is a path u ->* v. */
+    public boolean reaches(int u, int v) {
+        queries.increment();
+        if (u == v) return true;
+        if (pos[u] > pos[v] || !nests(u, v)) {
+            labelCuts.increment();
+            return false;
+        }
+        return search(u, v);
+    }
+
+    private boolean search(int u, int v) {
+        searches.increment();
+        Scratch s = scratch.get();
+        if (++s.epoch == 0) {
+            Arrays.fill(s.stamp, 0);
+            s.epoch = 1;
+        }
+        int[] off = dag.offsets, tgt = dag.targets, stamp = s.stamp, stack = s.stack;
+        int epoch = s.epoch, sp = 0, visits = 0, pv = pos[v];
+        stamp[u] = epoch;
+        stack[sp++] = u;
+        boolean found = false;
+        while (sp > 0 && !found) {
+            int x = stack[--sp];
+            visits++;
+            for (int e = off[x], end = off[x + 1]; e < end; e++) {
+                int w = tgt[e];
+                if (w == v) { found = true; break; }
+                if (stamp[w] == epoch) continue;
+                stamp[w] = epoch;
+                if (pos[w] < pv && nests(w, v)) stack[sp++] = w;
+            }
+        }
+        searchVisits.add(visits);
+        return found;
+    }
+
+    public int position(int v) { return pos[v]; }
+    public int labels() { return k; }
+
+    // index arrays only (the DAG is shared with the caller; search scratch is per thread)
+    public long getBytes() { return 4L * (pos.length + low.length + post.length); }
+
+    // Metrics
+    @Override public void start() { startNs = System.nanoTime(); }
+    @Override public void stop() { endNs = System.nanoTime(); }
+    @Override public void reset() { queries.reset(); labelCuts.reset(); searches.reset(); searchVisits.reset(); }
+    @Override public long getTimeNanos() { return endNs - startNs; }
+    @Override public double getTimeMillis() { return (endNs - startNs) / 1_000_000.0; }
+
+    @Override
+    public String report() {
+        return String.format("ReachabilityIndex(n=%d labels=%d bytes=%d build=%.3fms queries=%d cut=%d searches=%d visits=%d)",
+                n, k, getBytes(), getTimeMillis(), getQueries(), getLabelCuts(), getSearches(), getSearchVisits());
+    }
+
+    // getters
+    public double getBuildMs() { return getTimeMillis(); }
+    public long getQueries() { return queries.sum(); }
+    public long getLabelCuts() { return labelCuts.sum(); }
+    public long getSearches() { return searches.sum(); }
+    public long getSearchVisits() { return searchVisits.sum(); }
+}
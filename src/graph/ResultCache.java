@@ -0,0 +1,162 @@
+package graph;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.security.*;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * On-disk cache of per-dataset batch results. An entry (dir/<stem>.entry) stores the key it was
+ * computed for, the CSV row, the edge count and the compute time; the _result.json next to it is
+ * reused as is. The key is SHA-256 over the dataset file name and bytes, the output options and
+ * the engine fingerprint: VERSION plus every class file in the code locations (class directory
+ * or jar) the given classes were loaded from, nested and helper classes included. Any change
+ * to the input, the flags or the compiled engine therefore misses.
+ * A hit also requires the result file to still have the size recorded with the entry.
+ */
+public class ResultCache {
+
+    // bump when the output changes in a way the class bytes do not capture
+    public static final String VERSION = "1";
+
+    /** A reusable result. */
+    public static final class Entry {
+        public final String row;
+        public final long numEdges;
+        public final double computeMs;
+
+        Entry(String row, long numEdges, double computeMs) { this.row = row; this.numEdges = numEdges; this.computeMs = computeMs; }
+    }
+
+    private final Path dir;
+    private final byte[] engine;
+    private final LongAdder hits = new LongAdder(), misses = new LongAdder(), savedNs = new LongAdder();
+
+    // anchors only locate the code: everything loaded from the same directory or jar is hashed
+    public ResultCache(Path dir, Class<?>... anchors) throws IOException {
+        this.dir = dir;
+        Files.createDirectories(dir);
+        this.engine = fingerprint(anchors);
+    }
+
+    // SHA-256 of VERSION and the code locations of the anchors; a class without a readable
+    // location (e.g. from a custom loader) falls back to its own class file
+    static byte[] fingerprint(Class<?>... anchors) throws IOException {
+        MessageDigest md = sha256();
+        md.update(VERSION.getBytes());
+        Set<Path> seen = new HashSet<>();
+        for (Class<?> c : anchors) {
+            Path loc = location(c);
+            if (loc == null) {
+                md.update(c.getName().getBytes());
+                try (InputStream in = c.getResourceAsStream(c.getSimpleName() + ".class")) {
+                    if (in != null) md.update(in.readAllBytes());
+                }
+            } else if (seen.add(loc)) {
+                hashLocation(md, loc);
+            }
+        }
+        return md.digest();
+    }
+
+    private static Path location(Class<?> c) {
+        try {
+            CodeSource cs = c.getProtectionDomain().getCodeSource();
+            if (cs == null || cs.getLocation() == null) return null;
+            Path p = Path.of(cs.getLocation().toURI());
+            return Files.exists(p) ? p.toRealPath() : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    // a jar is hashed whole; a class directory contributes every .class file in path order
+    private static void hashLocation(MessageDigest md, Path loc) throws IOException {
+        if (!Files.isDirectory(loc)) {
+            md.update(Files.readAllBytes(loc));
+            return;
+        }
+        List<Path> files;
+        try (var s = Files.walk(loc)) {
+            files = s.filter(f -> f.toString().endsWith(".class")).sorted().toList();
+        }
+        for (Path f : files) {
+            md.update(loc.relativize(f).toString().getBytes());
+            md.update(Files.readAllBytes(f));
+        }
+    }
+
+    public String key(Path dataset, String options) throws IOException {
+        MessageDigest md = sha256();
+        md.update(engine);
+        md.update(options.getBytes());
+        md.update(dataset.getFileName().toString().getBytes());
+        try (FileChannel ch = FileChannel.open(dataset, StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate(1 << 16);
+            while (ch.read(buf) > 0) {
+                buf.flip();
+                md.update(buf);
+                buf.clear();
+            }
+        }
+        return HexFormat.of().formatHex(md.digest());
+    }
+
+    // counts a hit or miss; null when the entry is absent, stale or its result file changed
+    public Entry lookup(String stem, String key, Path resultFile) {
+        Entry e = read(stem, key, resultFile);
+        if (e == null) misses.increment();
+        else {
+            hits.increment();
+            savedNs.add((long) (e.computeMs * 1e6));
+        }
+        return e;
+    }
+
+    private Entry read(String stem, String key, Path resultFile) {
+        Path f = dir.resolve(stem + ".entry");
+        if (!Files.isRegularFile(f) || !Files.isRegularFile(resultFile)) return null;
+        Properties p = new Properties();
+        try (Reader r = Files.newBufferedReader(f)) {
+            p.load(r);
+            if (!key.equals(p.getProperty("key"))) return null;
+            if (Files.size(resultFile) != Long.parseLong(p.getProperty("result_bytes", "-1"))) return null;
+            return new Entry(p.getProperty("row"), Long.parseLong(p.getProperty("edges")), Double.parseDouble(p.getProperty("compute_ms")));
+        } catch (IOException | RuntimeException e) {
+            return null;   // unreadable entry: recompute
+        }
+    }
+
+    // written to a temp file and moved into place, so a crash never leaves a half entry
+    public void store(String stem, String key, String row, long numEdges, double computeMs, Path resultFile) throws IOException {
+        Properties p = new Properties();
+        p.setProperty("key", key);
+        p.setProperty("row", row);
+        p.setProperty("edges", Long.toString(numEdges));
+        p.setProperty("compute_ms", Double.toString(computeMs));
+        p.setProperty("result_bytes", Long.toString(Files.size(resultFile)));
+        Path f = dir.resolve(stem + ".entry"), tmp = dir.resolve(stem + ".entry.tmp");
+        try (Writer w = Files.newBufferedWriter(tmp)) { p.store(w, null); }
+        Files.move(tmp, f, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);   // every JDK ships SHA-256
+        }
+    }
+
+    public String report() {
+        return String.format(Locale.ROOT, "ResultCache(hits=%d misses=%d saved=%.3fms)", getHits(), getMisses(), getSavedMs());
+    }
+
+    // getters
+    public long getHits() { return hits.sum(); }
+    public long getMisses() { return misses.sum(); }
+    public double getSavedMs() { return savedNs.sum() / 1e6; }
+}
@@ -0,0 +1,173 @@
+package graph;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+
+/**
+ * Streaming writer for the per-dataset _result.json document.
+ * Serializes straight from the primitive arrays into a buffered FileChannel, so the
+ * document is never held in memory. Pretty mode is byte-identical to the original
+ * StringBuilder output; compact mode drops the newlines, indentation and spaces.
+ * Sections must be written in document order.
+ */
+public class ResultWriter implements Closeable {
+
+    private final FileChannel ch;
+    private final ByteBuffer buf = ByteBuffer.allocate(1 << 16);
+    private final boolean pretty;
+    private final String sep, colon;
+    private boolean firstSection = true;
+
+    public ResultWriter(Path file, boolean pretty) throws IOException {
+        this.ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.pretty = pretty;
+        this.sep = pretty ? ", " : ",";
+        this.colon = pretty ? ": " : ":";
+        raw("{");
+    }
+
+    // "SCC": [[..], ..]
+    public void components(Components comps) throws IOException {
+        section("SCC");
+        raw("[");
+        for (int c = 0; c < comps.count; c++) {
+            if (c > 0) raw(sep);
+            intList(comps.comp, comps.compStart[c], comps.compStart[c + 1]);
+        }
+        raw("]");
+    }
+
+    // "ComponentMap": {"v": cid, ..}
+    public void componentMap(int[] cid) throws IOException {
+        section("ComponentMap");
+        raw("{");
+        for (int i = 0; i < cid.length; i++) {
+            if (i > 0) raw(sep);
+            raw("\""); intVal(i); raw("\""); raw(colon); intVal(cid[i]);
+        }
+        raw("}");
+    }
+
+    // "CondensationGraph": [{"from":a,"to":b,"w":w}, ..]
+    public void condensation(CsrGraph g) throws IOException {
+        section("CondensationGraph");
+        raw("[");
+        boolean first = true;
+        for (int u = 0; u < g.n; u++) {
+            for (int e = g.offsets[u]; e < g.offsets[u + 1]; e++) {
+                if (!first) raw(sep);
+                first = false;
+                raw("{\"from\":"); intVal(u);
+                raw(",\"to\":"); intVal(g.targets[e]);
+                raw(",\"w\":"); doubleVal(g.weights[e]);
+                raw("}");
+            }
+        }
+        raw("]");
+    }
+
+    public void topologicalOrder(int[] order) throws IOException {
+        section("TopologicalOrder");
+        intList(order, 0, order.length);
+    }
+
+    // {"distances": {..finite..}, "path": [..]}
+    public void shortestPaths(double[] dist, int[] path) throws IOException {
+        section("ShortestPaths");
+        raw("{");
+        distances(dist);
+        raw(sep); raw("\"path\""); raw(colon); intList(path, 0, path.length);
+        raw("}");
+    }
+
+    // {"distances": {..}, "length": x|null, "path": [..]}
+    public void criticalPath(double[] dist, int end, int[] path) throws IOException {
+        section("CriticalPath");
+        raw("{");
+        distances(dist);
+        raw(sep); raw("\"length\""); raw(colon);
+        if (end == -1) raw("null"); else doubleVal(dist[end]);
+        raw(sep); raw("\"path\""); raw(colon); intList(path, 0, path.length);
+        raw("}");
+    }
+
+    // only reachable (finite) entries, in vertex order
+    private void distances(double[] dist) throws IOException {
+        raw("\"distances\""); raw(colon); raw("{");
+        boolean first = true;
+        for (int i = 0; i < dist.length; i++) {
+            if (Double.isInfinite(dist[i])) continue;
+            if (!first) raw(sep);
+            first = false;
+            raw("\""); intVal(i); raw("\""); raw(colon); doubleVal(dist[i]);
+        }
+        raw("}");
+    }
+
+    private void section(String name) throws IOException {
+        if (!firstSection) raw(",");
+        firstSection = false;
+        if (pretty) raw("\n  ");
+        raw("\""); raw(name); raw("\""); raw(colon);
+    }
+
+    private void intList(int[] a, int from, int to) throws IOException {
+        raw("[");
+        for (int i = from; i < to; i++) {
+            if (i > from) raw(sep);
+            intVal(a[i]);
+        }
+        raw("]");
+    }
+
+    // ---- low-level output ----
+
+    private void raw(String s) throws IOException {
+        if (buf.remaining() < s.length()) flush();
+        for (int i = 0; i < s.length(); i++) buf.put((byte) s.charAt(i));
+    }
+
+    private void intVal(long v) throws IOException {
+        if (buf.remaining() < 21) flush();
+        if (v < 0) {
+            if (v == Long.MIN_VALUE) { raw(Long.toString(v)); return; }
+            buf.put((byte) '-');
+            v = -v;
+        }
+        int start = buf.position();
+        do { buf.put((byte) ('0' + (v % 10))); v /= 10; } while (v != 0);
+        // digits were written least significant first
+        for (int i = start, j = buf.position() - 1; i < j; i++, j--) {
+            byte t = buf.get(i); buf.put(i, buf.get(j)); buf.put(j, t);
+        }
+    }
+
+    // same text as Double.toString; integral values below 1e7 avoid the String allocation
+    private void doubleVal(double d) throws IOException {
+        if (d == Math.rint(d) && Math.abs(d) < 1e7 && !(d == 0 && 1 / d < 0)) {
+            intVal((long) d);
+            raw(".0");
+        } else {
+            raw(Double.toString(d));
+        }
+    }
+
+    private void flush() throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) ch.write(buf);
+        buf.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            raw(pretty ? "\n}\n" : "}\n");
+            flush();
+        } finally {
+            ch.close();
+        }
+    }
+}
@@ -4,13 +4,23 @@ import java.util.*;
 
 /**
  * Tarjan SCC with metrics (DFS visits + edges processed + time)
+ * Runs over a CsrGraph; addEdge/run() build one from the collected edges.
+ * The default engine is an explicit-stack Tarjan on primitive int[] stacks, so deep
+ * graphs cannot overflow the thread stack; runRecursive keeps the classic version.
+ * Both visit vertices and edges in the same order, so the counters are identical.
+ * Scratch arrays come from a Workspace: a private one by default, or a shared one
+ * (Workspace.local()) so repeated runs over many graphs allocate only their results.
  */
-public class SCC implements Metrics {
-    private final List<Integer>[] g;
+public class SCC implements SccEngine {
     private final int n;
+    private final EdgeList pending = new EdgeList();
+    private CsrGraph g;
     private int idxCounter = 0;
-    private final int[] idx, low;
-    private final boolean[] on;
+    private final Workspace ws;
+    private int[] idx = new int[0], low = new int[0];
+    private Workspace.Stamps on;
+    // iterative engine: DFS call stack + per-frame edge cursor, Tarjan stack
+    private int[] callStack = new int[0], edgeCursor = new int[0], tarjanStack = new int[0];
     private final Deque<Integer> stack = new ArrayDeque<>();
     private final List<List<Integer>> comps = new ArrayList<>();
 
@@ -18,28 +28,27 @@ public class SCC implements Metrics {
     private long startNs = 0, endNs = 0;
     private long dfsVisits = 0, edgesProcessed = 0;
 
-    @SuppressWarnings("unchecked")
-    public SCC(int n) {
+    public SCC(int n) { this(n, new Workspace()); }
+
+    public SCC(int n, Workspace ws) {
         this.n = n;
-        g = new List[n];
-        for (int i = 0; i < n; i++) g[i] = new ArrayList<>();
-        idx = new int[n]; Arrays.fill(idx, -1);
-        low = new int[n];
-        on = new boolean[n];
+        this.ws = ws;
     }
 
-    public void addEdge(int u, int v) { g[u].add(v); }
+    public void addEdge(int u, int v) { pending.add(u, v, 1.0); }
 
     private void dfs(int v) {
         dfsVisits++;
         idx[v] = low[v] = idxCounter++;
-        stack.push(v); on[v] = true;
-        for (int w : g[v]) {
+        stack.push(v); on.mark(v);
+        int[] off = g.offsets, tgt = g.targets;
+        for (int e = off[v], end = off[v + 1]; e < end; e++) {
+            int w = tgt[e];
             edgesProcessed++;
             if (idx[w] == -1) {
                 dfs(w);
                 low[v] = Math.min(low[v], low[w]);
-            } else if (on[w]) {
+            } else if (on.isMarked(w)) {
                 low[v] = Math.min(low[v], idx[w]);
             }
         }
@@ -48,7 +57,7 @@ public class SCC implements Metrics {
             int w;
             do {
                 w = stack.pop();
-                on[w] = false;
+                on.unmark(w);
                 comp.add(w);
             } while (w != v);
             comps.add(comp);
@@ -56,11 +65,167 @@ public class SCC implements Metrics {
     }
 
     public List<List<Integer>> run() {
+        return run(CsrGraph.build(n, pending, false));
+    }
+
+    public List<List<Integer>> run(CsrGraph graph) {
+        return runFlat(graph).toLists();
+    }
+
+    // classic recursive Tarjan; stack depth grows with the longest DFS path
+    public List<List<Integer>> runRecursive(CsrGraph graph) {
         reset();
+        prepare(graph);
+        stack.clear();
+        comps.clear();
         start();
-        for (int i = 0; i < n; i++) if (idx[i] == -1) dfs(i);
+        for (int i = 0; i < graph.n; i++) if (idx[i] == -1) dfs(i);
+        stop();
+        return new ArrayList<>(comps);
+    }
+
+    @Override
+    public Components components(CsrGraph graph) { return runFlat(graph); }
+
+    // explicit-stack Tarjan; returns flat components plus the vertex -> component map
+    public Components runFlat(CsrGraph graph) {
+        reset();
+        prepare(graph);
+        int size = graph.n;
+        int[] off = graph.offsets, tgt = graph.targets;
+        int[] comp = new int[size], compStart = new int[size + 1], cid = new int[size];
+        int count = 0, written = 0;
+        int sp = 0, tsp = 0;
+
+        start();
+        for (int r = 0; r < size; r++) {
+            if (idx[r] != -1) continue;
+            idx[r] = low[r] = idxCounter++;
+            tarjanStack[tsp++] = r; on.mark(r);
+            callStack[sp] = r; edgeCursor[sp] = off[r]; sp++;
+
+            while (sp > 0) {
+                int v = callStack[sp - 1];
+                int e = edgeCursor[sp - 1];
+                if (e < off[v + 1]) {
+                    edgeCursor[sp - 1] = e + 1;
+                    int w = tgt[e];
+                    if (idx[w] == -1) {
+                        idx[w] = low[w] = idxCounter++;
+                        tarjanStack[tsp++] = w; on.mark(w);
+                        callStack[sp] = w; edgeCursor[sp] = off[w]; sp++;
+                    } else if (on.isMarked(w) && idx[w] < low[v]) {
+                        low[v] = idx[w];
+                    }
+                    continue;
+                }
+                // v finished
+                if (low[v] == idx[v]) {
+                    int w;
+                    do {
+                        w = tarjanStack[--tsp];
+                        on.unmark(w);
+                        comp[written++] = w;
+                        cid[w] = count;
+                    } while (w != v);
+                    compStart[++count] = written;
+                }
+                sp--;
+                if (sp > 0) {
+                    int parent = callStack[sp - 1];
+                    if (low[v] < low[parent]) low[parent] = low[v];
+                }
+            }
+        }
+        // every vertex is entered once and every edge scanned once, so the counters need no per-edge work
+        dfsVisits = size;
+        edgesProcessed = off[size];
+        stop();
+        return new Components(count, comp, Arrays.copyOf(compStart, count + 1), cid);
+    }
+
+    // scratch arrays are borrowed from the workspace; on[] is cleared by a new epoch
+    private void prepare(CsrGraph graph) {
+        g = graph;
+        int size = graph.n;
+        idx = ws.ints(Workspace.SCC_IDX, size);
+        low = ws.ints(Workspace.SCC_LOW, size);
+        callStack = ws.ints(Workspace.SCC_CALL, size);
+        edgeCursor = ws.ints(Workspace.SCC_CURSOR, size);
+        tarjanStack = ws.ints(Workspace.SCC_TARJAN, size);
+        on = ws.stamps(Workspace.SCC_ON, size);
+        Arrays.fill(idx, 0, size, -1);
+        idxCounter = 0;
+    }
+
+    /**
+     * The same explicit-stack Tarjan over an off-heap graph, with idx/low and both stacks
+     * allocated in the arena. Fills cid (length >= n) with the same reverse topological
+     * numbering as runFlat and returns the component count. "On the Tarjan stack" is
+     * "visited and cid still -1", so no on[] array is needed.
+     */
+    public int components(OffHeapGraph graph, OffHeapArena arena, OffHeapArena.Ints cid) {
+        return components(graph, arena, cid, null, null);
+    }
+
+    // also fills comp (vertices in pop order, length n) and compStart (length >= count + 1) like runFlat
+    public int components(OffHeapGraph graph, OffHeapArena arena, OffHeapArena.Ints cid,
+                          OffHeapArena.Ints comp, OffHeapArena.Ints compStart) {
+        reset();
+        int size = graph.n;
+        OffHeapArena.Ints off = graph.offsets, tgt = graph.targets;
+        OffHeapArena.Ints idx = arena.ints(size), low = arena.ints(size);
+        OffHeapArena.Ints callStack = arena.ints(size), edgeCursor = arena.ints(size), tarjanStack = arena.ints(size);
+        idx.fill(-1);
+        cid.fill(-1);
+        int count = 0, counter = 0, sp = 0, tsp = 0, written = 0;
+        if (compStart != null) compStart.set(0, 0);
+
+        start();
+        for (int r = 0; r < size; r++) {
+            if (idx.get(r) != -1) continue;
+            idx.set(r, counter); low.set(r, counter); counter++;
+            tarjanStack.set(tsp++, r);
+            callStack.set(sp, r); edgeCursor.set(sp, off.get(r)); sp++;
+
+            while (sp > 0) {
+                int v = callStack.get(sp - 1);
+                int e = edgeCursor.get(sp - 1);
+                if (e < off.get(v + 1)) {
+                    edgeCursor.set(sp - 1, e + 1);
+                    int w = tgt.get(e), iw = idx.get(w);
+                    if (iw == -1) {
+                        idx.set(w, counter); low.set(w, counter); counter++;
+                        tarjanStack.set(tsp++, w);
+                        callStack.set(sp, w); edgeCursor.set(sp, off.get(w)); sp++;
+                    } else if (cid.get(w) == -1 && iw < low.get(v)) {
+                        low.set(v, iw);
+                    }
+                    continue;
+                }
+                // v finished
+                if (low.get(v) == idx.get(v)) {
+                    int w;
+                    do {
+                        w = tarjanStack.get(--tsp);
+                        cid.set(w, count);
+                        if (comp != null) comp.set(written, w);
+                        written++;
+                    } while (w != v);
+                    count++;
+                    if (compStart != null) compStart.set(count, written);
+                }
+                sp--;
+                if (sp > 0) {
+                    int parent = callStack.get(sp - 1);
+                    if (low.get(v) < low.get(parent)) low.set(parent, low.get(v));
+                }
+            }
+        }
+        dfsVisits = size;
+        edgesProcessed = graph.m;
         stop();
-        return comps;
+        return count;
     }
 
     // Metrics
@@ -0,0 +1,38 @@
+package graph;
+
+/**
+ * Common surface of the SCC engines (sequential Tarjan, parallel forward-backward).
+ * Components are numbered in reverse topological order of the condensation:
+ * every inter-component edge goes from a higher cid to a lower one.
+ */
+public interface SccEngine extends Metrics {
+
+    // below this many vertices + edges the fork/join overhead is not worth it
+    int PARALLEL_THRESHOLD = 1 << 17;
+
+    Components components(CsrGraph g);
+
+    long getDfsVisits();
+    long getEdgesProcessed();
+    double getTimeMs();
+
+    static SccEngine forGraph(CsrGraph g) {
+        return forGraph(g, PARALLEL_THRESHOLD, new Workspace());
+    }
+
+    // the sequential engine borrows its scratch from ws
+    static SccEngine forGraph(CsrGraph g, Workspace ws) {
+        return forGraph(g, PARALLEL_THRESHOLD, ws);
+    }
+
+    static SccEngine forGraph(CsrGraph g, long threshold) {
+        return forGraph(g, threshold, new Workspace());
+    }
+
+    // Tarjan for small graphs or single-core machines, ParallelSCC otherwise
+    static SccEngine forGraph(CsrGraph g, long threshold, Workspace ws) {
+        if ((long) g.n + g.edgeCount() < threshold || Runtime.getRuntime().availableProcessors() < 2)
+            return new SCC(g.n, ws);
+        return new ParallelSCC();
+    }
+}
@@ -4,32 +4,82 @@ import java.util.*;
 
 /**
  * Kahn topological sort with push/pop counters and timing.
+ * In-degrees are scratch from a Workspace (private by default); sort(g, order) also
+ * reuses the caller's output array, so repeated sorts need not allocate at all.
  */
 public class TopoSort implements Metrics {
 
+    private final Workspace ws;
     private long startNs = 0, endNs = 0;
     private long pushes = 0, pops = 0;
 
-    public TopoSort() { reset(); }
+    public TopoSort() { this(new Workspace()); }
+
+    public TopoSort(Workspace ws) {
+        this.ws = ws;
+        reset();
+    }
 
     public List<Integer> sort(List<List<Edge>> adj) {
+        int[] order = sort(CsrGraph.of(adj));
+        List<Integer> list = new ArrayList<>(order.length);
+        for (int u : order) list.add(u);
+        return list;
+    }
+
+    // CSR version; shorter than g.n when the graph has a cycle
+    public int[] sort(CsrGraph g) {
+        int[] q = new int[g.n];
+        int count = sort(g, q);
+        return count == g.n ? q : Arrays.copyOf(q, count);
+    }
+
+    // fills q (length >= g.n) and returns how many vertices it holds; the FIFO queue is q itself, so pops = head and pushes = tail
+    public int sort(CsrGraph g, int[] q) {
+        reset();
+        start();
+        int n = g.n;
+        int[] off = g.offsets, tgt = g.targets;
+        int[] indeg = ws.ints(Workspace.TOPO_INDEG, n);
+        Arrays.fill(indeg, 0, n, 0);
+        for (int e = 0, m = g.edgeCount(); e < m; e++) indeg[tgt[e]]++;
+        int head = 0, tail = 0;
+        for (int i = 0; i < n; i++) if (indeg[i] == 0) q[tail++] = i;
+        while (head < tail) {
+            int u = q[head++];
+            for (int e = off[u], end = off[u + 1]; e < end; e++) {
+                if (--indeg[tgt[e]] == 0) q[tail++] = tgt[e];
+            }
+        }
+        pushes = tail;
+        pops = head;
+        stop();
+        return tail;
+    }
+
+    // off-heap Kahn: in-degrees and the queue live in the arena; returns the order (length = pops)
+    public OffHeapArena.Ints sort(OffHeapGraph g, OffHeapArena arena) {
         reset();
         start();
-        int n = adj.size();
-        int[] indeg = new int[n];
-        for (int u = 0; u < n; u++) for (Edge e : adj.get(u)) indeg[e.to]++;
-        Deque<Integer> q = new ArrayDeque<>();
-        for (int i = 0; i < n; i++) if (indeg[i] == 0) { q.add(i); pushes++; }
-        List<Integer> order = new ArrayList<>();
-        while (!q.isEmpty()) {
-            int u = q.poll(); pops++;
-            order.add(u);
-            for (Edge e : adj.get(u)) {
-                if (--indeg[e.to] == 0) { q.add(e.to); pushes++; }
+        int n = g.n;
+        OffHeapArena.Ints off = g.offsets, tgt = g.targets;
+        OffHeapArena.Ints indeg = arena.ints(n), q = arena.ints(n);
+        indeg.fill(0);
+        for (int e = 0; e < g.m; e++) indeg.set(tgt.get(e), indeg.get(tgt.get(e)) + 1);
+        int head = 0, tail = 0;
+        for (int i = 0; i < n; i++) if (indeg.get(i) == 0) q.set(tail++, i);
+        while (head < tail) {
+            int u = q.get(head++);
+            for (int e = off.get(u), end = off.get(u + 1); e < end; e++) {
+                int v = tgt.get(e), d = indeg.get(v) - 1;
+                indeg.set(v, d);
+                if (d == 0) q.set(tail++, v);
             }
         }
+        pushes = tail;
+        pops = head;
         stop();
-        return order;
+        return tail == n ? q : q.prefix(tail);
     }
 
     // Metrics
@@ -0,0 +1,105 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * Growable primitive scratch arrays that SCC, TopoSort and DAGSP borrow instead of allocating
+ * per run, so a loop over many graphs stops producing garbage once the arrays have grown to
+ * the largest graph. Each algorithm owns fixed slots, so nested runs on one workspace never
+ * hand out the same array twice. Contents of ints / doubles are left over from the last
+ * user; Stamps give O(1) clearing through an epoch counter instead of Arrays.fill.
+ * A workspace is single-threaded: local() hands every thread its own.
+ */
+public final class Workspace {
+
+    // int slots
+    public static final int SCC_IDX = 0, SCC_LOW = 1, SCC_CALL = 2, SCC_CURSOR = 3, SCC_TARJAN = 4,
+            TOPO_INDEG = 5, DAGSP_INDEG = 6, DAGSP_STACK = 7, DAGSP_CONE = 8, DAGSP_PREV = 9, INT_SLOTS = 10;
+    // stamp slots
+    public static final int SCC_ON = 0, DAGSP_MARK = 1, DAGSP_SEEN = 2, STAMP_SLOTS = 3;
+    // double slots; 1..3 are free for callers (e.g. reusable distance arrays)
+    public static final int DAGSP_DIST = 0, DOUBLE_SLOTS = 4;
+
+    private static final ThreadLocal<Workspace> LOCAL = ThreadLocal.withInitial(Workspace::new);
+
+    private final int[][] ints = new int[INT_SLOTS][];
+    private final double[][] doubles = new double[DOUBLE_SLOTS][];
+    private final Stamps[] stamps = new Stamps[STAMP_SLOTS];
+    private long grows = 0, bytes = 0;
+
+    /** Vertex marks cleared in O(1): a vertex is marked iff its stamp equals the current epoch. */
+    public static final class Stamps {
+        private int[] stamp = new int[0];
+        private int epoch = 0;
+
+        // starts a new epoch: every vertex becomes unmarked
+        void begin() {
+            if (++epoch == 0) {   // wrapped: old stamps could collide
+                Arrays.fill(stamp, 0);
+                epoch = 1;
+            }
+        }
+
+        public boolean isMarked(int v) { return stamp[v] == epoch; }
+        public void mark(int v) { stamp[v] = epoch; }
+        public void unmark(int v) { stamp[v] = 0; }
+        int epoch() { return epoch; }
+        int length() { return stamp.length; }
+
+        // the epoch is kept, so a result stamped before the resize still reads as stale
+        void resize(int len) {
+            stamp = new int[len];
+        }
+    }
+
+    /** The calling thread's workspace. */
+    public static Workspace local() { return LOCAL.get(); }
+
+    // at least n ints; grown without copying, so the contents are arbitrary
+    public int[] ints(int slot, int n) {
+        int[] a = ints[slot];
+        if (a == null || a.length < n) {
+            int len = grow(a == null ? 0 : a.length, n);
+            bytes += 4L * (len - (a == null ? 0 : a.length));
+            ints[slot] = a = new int[len];
+        }
+        return a;
+    }
+
+    public double[] doubles(int slot, int n) {
+        double[] a = doubles[slot];
+        if (a == null || a.length < n) {
+            int len = grow(a == null ? 0 : a.length, n);
+            bytes += 8L * (len - (a == null ? 0 : a.length));
+            doubles[slot] = a = new double[len];
+        }
+        return a;
+    }
+
+    // marks over [0, n), all cleared
+    public Stamps stamps(int slot, int n) {
+        Stamps s = stamps[slot];
+        if (s == null) stamps[slot] = s = new Stamps();
+        if (s.length() < n) {
+            int len = grow(s.length(), n);
+            bytes += 4L * (len - s.length());
+            s.resize(len);
+        }
+        s.begin();
+        return s;
+    }
+
+    // 1.5x headroom, so a slowly growing workload does not reallocate on every graph
+    private int grow(int current, int n) {
+        grows++;
+        return Math.min(Integer.MAX_VALUE - 8, Math.max(n, current + (current >> 1)));
+    }
+
+    public String report() {
+        return String.format("Workspace(bytes=%d grows=%d)", bytes, grows);
+    }
+
+    // getters
+    public long getBytes() { return bytes; }
+    public long getGrows() { return grows; }
+}